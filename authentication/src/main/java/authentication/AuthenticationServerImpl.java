@@ -2,26 +2,53 @@ package authentication;
 
 import protocol.AuthenticationRequest;
 import protocol.AuthenticationResponse;
+import protocol.ImmutableAuthenticationRequest;
 import protocol.ImmutableAuthenticationResponse;
 import protocol.ImmutableUnsuccessfulResponse;
 import protocol.SmppError;
 import protocol.UnsuccessfulResponse;
 import protocol.authentication.AuthenticationServer;
 import protocol.configuration.IdentityConfiguration;
-import authentication.utils.DynamoDBUtils;
-
+import authentication.cache.IdentityCache;
+import authentication.cache.PackedIdentity;
+import authentication.execution.AuthenticationExecutors;
+import authentication.jfr.IdentityFetchEvent;
+import authentication.jfr.IpCheckEvent;
+import authentication.jfr.PasswordCheckEvent;
+import authentication.latency.LatencyEqualizer;
+import authentication.metrics.HeavyHitterTracker;
+import authentication.password.PasswordHashing;
+import authentication.replica.DynamoDBReplica;
+import authentication.replica.ReplicaRouter;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.TableKeysAndAttributes;
 import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
+import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
 import io.vavr.control.Either;
@@ -32,6 +59,7 @@ import org.apache.commons.net.util.SubnetUtils;
 import org.apache.commons.net.util.SubnetUtils.SubnetInfo;
 import org.mindrot.jbcrypt.BCrypt;
 
+import static authentication.jfr.AuthenticationPhaseEvent.OUTCOME_OK;
 import static protocol.SmppError.SMPP_3001;
 import static protocol.SmppError.SMPP_3002;
 import static protocol.SmppError.SMPP_3003;
@@ -41,8 +69,7 @@ import static protocol.SmppError.SMPP_3005;
 @Slf4j
 public class AuthenticationServerImpl implements AuthenticationServer {
 
-    private final DynamoDB dynamoDBClient;
-    private final String tableName;
+    private final ReplicaRouter replicaRouter;
     private static final String STATUS = "status";
     private static final String UNSUCCESSFUL = "unsuccessful";
     private static final String ERROR = "error";
@@ -50,31 +77,45 @@ public class AuthenticationServerImpl implements AuthenticationServer {
     private static final String PASSWORD_HASH_ATTRIBUTE = "password_hash";
     private static final String CUSTOMER_ID_ATTRIBUTE = "customer_id";
     private static final String IP_ALLOW_LIST_ATTRIBUTE = "ip_allow_list";
+    // pre-parsed identity, see PackedIdentity
+    private static final String IDENTITY_BIN_ATTRIBUTE = "identity_bin";
     private static final String AUTHENTICATION_CALLS = "authentication.calls";
+    private static final String PASSWORD_REHASHES = "authentication.password.rehashes";
+    private static final int REHASH_QUEUE_SIZE = 1000;
+    // maximum keys of a single BatchGetItem request
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final String WARM_UP_SYSTEM_ID = "__warm-up__";
+    // failures faster than a successful authentication, a wrong password already pays the password check and an
+    // unavailable datastore reveals nothing
+    private static final Set<SmppError> EQUALIZED_ERRORS = EnumSet.of(SMPP_3001, SMPP_3002, SMPP_3005);
     private final Map<SmppError, Counter> errorCounterMap = new ConcurrentHashMap<>();
+    private final PasswordHashing passwordHashing;
+    private final ExecutorService authenticationExecutor;
+    // single background thread, rehashes are dropped when the queue is full and retried on the next login
+    private final ExecutorService rehashExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(REHASH_QUEUE_SIZE), runnable -> {
+                final var thread = new Thread(runnable, "password-rehash");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final Set<String> pendingRehashes = ConcurrentHashMap.newKeySet();
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final Optional<IdentityCache> identityCache;
+    private final Optional<LatencyEqualizer> latencyEqualizer;
 
     private final Counter successfulAuthenticationCounter =
             Counter.builder(AUTHENTICATION_CALLS).tag(STATUS, "successful").register(Metrics.globalRegistry);
 
     @Builder
-    public AuthenticationServerImpl(final @NonNull IdentityConfiguration config) {
-        this.dynamoDBClient = createDynamoDBClient(config);
-        this.tableName = config.dynamoDBConfiguration().tableName();
-    }
-
-    /**
-     * Create the DynamoDB client based on configuration
-     */
-    private static DynamoDB createDynamoDBClient(final IdentityConfiguration identityConfiguration) {
-        final var clientBuilder = AmazonDynamoDBClientBuilder.standard()
-                .withClientConfiguration(DynamoDBUtils.getClientConfiguration(identityConfiguration));
-
-        if (DynamoDBUtils.isLocal(identityConfiguration)) {
-            clientBuilder.setEndpointConfiguration(DynamoDBUtils.getEndpointConfiguration(identityConfiguration));
-        } else {
-            clientBuilder.setRegion(DynamoDBUtils.getRegion(identityConfiguration));
-        }
-        return new DynamoDB(clientBuilder.build());
+    public AuthenticationServerImpl(final @NonNull IdentityConfiguration config,
+            final HeavyHitterTracker heavyHitterTracker,
+            final IdentityCache identityCache) {
+        this.replicaRouter = ReplicaRouter.fromConfiguration(config);
+        this.passwordHashing = PasswordHashing.fromConfiguration(config.passwordHashConfiguration());
+        this.authenticationExecutor = AuthenticationExecutors.create(config);
+        this.heavyHitterTracker = (heavyHitterTracker != null) ? heavyHitterTracker : new HeavyHitterTracker();
+        this.identityCache = Optional.ofNullable(identityCache);
+        this.latencyEqualizer = config.latencyEqualizationConfiguration().map(LatencyEqualizer::new);
     }
 
     /**
@@ -82,30 +123,48 @@ public class AuthenticationServerImpl implements AuthenticationServer {
      */
     @Override
     public Either<UnsuccessfulResponse, AuthenticationResponse> authenticate(final AuthenticationRequest authenticationRequest) {
-        final var identity = this.getCredentials(authenticationRequest.systemId());
+        final var systemId = authenticationRequest.systemId();
+
+        final var identityFetchEvent = new IdentityFetchEvent();
+        identityFetchEvent.begin();
+        final var identity = this.getCredentials(systemId);
+        identityFetchEvent.commit(systemId, identity.isLeft() ? identity.getLeft().error().code : OUTCOME_OK);
 
         // DynamoDB error/incorrect or missing system ID/missing credentials
         if (identity.isLeft()) {
-            this.incrementErrorCounter(identity.getLeft().error());
+            this.incrementErrorCounter(identity.getLeft().error(), authenticationRequest);
             return Either.left(identity.getLeft());
         }
 
         // incorrect IP
-        if (!checkIpAddress(identity.get(), authenticationRequest)) {
-            this.incrementErrorCounter(SMPP_3002);
+        final var ipCheckEvent = new IpCheckEvent();
+        ipCheckEvent.begin();
+        final var validIp = checkIpAddress(identity.get(), authenticationRequest);
+        ipCheckEvent.commit(systemId, validIp ? OUTCOME_OK : SMPP_3002.code);
+        if (!validIp) {
+            this.incrementErrorCounter(SMPP_3002, authenticationRequest);
             final var response = ImmutableUnsuccessfulResponse.builder().error(SMPP_3002).build();
             log.info("IP is not allow-listed for the session - Response: {}", response);
             return Either.left(response);
         }
 
         // incorrect password
-        if (!checkPassword(identity.get(), authenticationRequest)) {
-            this.incrementErrorCounter(SMPP_3003);
+        final var passwordCheckEvent = new PasswordCheckEvent();
+        passwordCheckEvent.begin();
+        final var validPassword = this.checkPassword(identity.get(), authenticationRequest);
+        passwordCheckEvent.commit(systemId, validPassword ? OUTCOME_OK : SMPP_3003.code);
+        if (!validPassword) {
+            this.incrementErrorCounter(SMPP_3003, authenticationRequest);
             final var response = ImmutableUnsuccessfulResponse.builder().error(SMPP_3003).build();
             log.info("Password is incorrect - Response: {}", response);
             return Either.left(response);
         }
 
+        // outdated hash parameters
+        if (this.passwordHashing.needsRehash(identity.get().passwordHash())) {
+            this.rehashPassword(identity.get(), authenticationRequest.password());
+        }
+
         // successful authentication
         this.successfulAuthenticationCounter.increment();
         final var response = ImmutableAuthenticationResponse.builder()
@@ -119,16 +178,219 @@ public class AuthenticationServerImpl implements AuthenticationServer {
     }
 
     /**
-     * Get the authentication information from DynamoDB
+     * {@inheritDoc}
+     * <p>
+     * With latency equalization, failures faster than a successful authentication complete after a latency drawn
+     * from the successful authentications. Requests are rejected before the lookup while too many failures are
+     * waiting for their release, so the response never depends on whether the system_id exists.
+     */
+    @Override
+    public CompletableFuture<Either<UnsuccessfulResponse, AuthenticationResponse>> authenticateAsync(
+            final AuthenticationRequest authenticationRequest) {
+        final var startNanos = System.nanoTime();
+        if (this.latencyEqualizer.isPresent() && this.latencyEqualizer.get().isSaturated()) {
+            this.incrementErrorCounter(SMPP_3004);
+            final var response = ImmutableUnsuccessfulResponse.builder().error(SMPP_3004).build();
+            log.debug("Too many failed authentications waiting for their release - Response: {}", response);
+            return CompletableFuture.completedFuture(Either.left(response));
+        }
+        final var authentication = CompletableFuture.supplyAsync(() -> this.authenticate(authenticationRequest),
+                this.authenticationExecutor);
+        if (this.latencyEqualizer.isEmpty()) {
+            return authentication;
+        }
+
+        final var equalizer = this.latencyEqualizer.get();
+        return authentication.thenCompose(result -> {
+            final var elapsedNanos = System.nanoTime() - startNanos;
+            if (result.isRight()) {
+                equalizer.recordSuccess(elapsedNanos);
+            } else if (EQUALIZED_ERRORS.contains(result.getLeft().error())) {
+                return equalizer.release(result, elapsedNanos);
+            }
+            return CompletableFuture.completedFuture(result);
+        });
+    }
+
+    /**
+     * Open connections to every DynamoDB replica by fetching a non-existent identity concurrently
+     *
+     * @param connections - number of concurrent requests per replica
+     *
+     * @return number of successful requests
+     */
+    public int openConnections(final int connections) {
+        final var replicas = this.replicaRouter.replicas();
+        final var executor = Executors.newFixedThreadPool(connections * replicas.size());
+        try {
+            final List<Future<Item>> requests = new ArrayList<>(connections * replicas.size());
+            for (final DynamoDBReplica replica : replicas) {
+                for (int i = 0; i < connections; i++) {
+                    requests.add(executor.submit(() -> this.replicaRouter.executeOn(replica, r -> r.table()
+                            .getItem(new GetItemSpec().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, WARM_UP_SYSTEM_ID)))));
+                }
+            }
+
+            int successful = 0;
+            for (final Future<Item> request : requests) {
+                try {
+                    request.get();
+                    successful++;
+                } catch (final ExecutionException e) {
+                    log.warn("Unable to open connection to DynamoDB", e.getCause());
+                }
+            }
+            return successful;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetch the identities from DynamoDB into the identity cache
+     *
+     * @param systemIds - system IDs to prefetch
+     *
+     * @return number of cached identities
+     */
+    public int prefetch(final Collection<String> systemIds) {
+        return this.prefetch(systemIds, () -> false);
+    }
+
+    /**
+     * Fetch the identities from DynamoDB into the identity cache until it is cancelled
+     *
+     * @param systemIds - system IDs to prefetch
+     * @param cancelled - checked before every batch
+     *
+     * @return number of cached identities
+     */
+    public int prefetch(final Collection<String> systemIds, final BooleanSupplier cancelled) {
+        if (this.identityCache.isEmpty() || systemIds.isEmpty()) {
+            return 0;
+        }
+
+        final var cache = this.identityCache.get();
+        final var version = cache.version();
+        final var batch = new ArrayList<>(systemIds);
+        int cached = 0;
+        for (int start = 0; (start < batch.size()) && !cancelled.getAsBoolean(); start += BATCH_GET_LIMIT) {
+            final var keys = batch.subList(start, Math.min(start + BATCH_GET_LIMIT, batch.size())).toArray();
+            try {
+                cached += this.replicaRouter.execute(replica -> {
+                    int fetched = 0;
+                    var outcome = replica.dynamoDB().batchGetItem(new TableKeysAndAttributes(replica.tableName())
+                            .withHashOnlyKeys(SYSTEM_ID_ATTRIBUTE, keys));
+                    while (true) {
+                        for (final Item item : outcome.getTableItems().getOrDefault(replica.tableName(), List.of())) {
+                            final var identity = fromDynamoDb(item);
+                            if (identity.isPresent()) {
+                                cache.put(identity.get(), version);
+                                fetched++;
+                            }
+                        }
+                        if (outcome.getUnprocessedKeys().isEmpty()) {
+                            return fetched;
+                        }
+                        outcome = replica.dynamoDB().batchGetItemUnprocessed(outcome.getUnprocessedKeys());
+                    }
+                });
+            } catch (final RuntimeException e) {
+                log.warn("Unable to prefetch identities from DynamoDB", e);
+                return cached;
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * System IDs of the cached identities, the most recently accessed first, e.g. to prefetch them after a restart
+     *
+     * @param limit - maximum number of system IDs
+     */
+    public List<String> cachedSystemIds(final int limit) {
+        return this.identityCache.map(cache -> cache.systemIds(limit)).orElse(List.of());
+    }
+
+    /**
+     * Run the parsing, IP check and password check of an authentication on a synthetic identity, so they are
+     * compiled by the JIT before the first bind. Neither DynamoDB nor the metrics are touched.
+     *
+     * @param iterations - number of synthetic authentications
+     */
+    public void warmUpCodePaths(final int iterations) {
+        this.warmUpCodePaths(iterations, () -> false);
+    }
+
+    /**
+     * Run the synthetic authentications until they are cancelled, see {@link #warmUpCodePaths(int)}
+     *
+     * @param iterations - number of synthetic authentications
+     * @param cancelled  - checked before every authentication, the password check does not react to interrupts
+     */
+    public void warmUpCodePaths(final int iterations, final BooleanSupplier cancelled) {
+        // lowest cost, the cost only changes the number of rounds of the same code
+        final var passwordHash = BCrypt.hashpw(WARM_UP_SYSTEM_ID, BCrypt.gensalt(4));
+        final var item = new Item().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, WARM_UP_SYSTEM_ID)
+                .withString(PASSWORD_HASH_ATTRIBUTE, passwordHash)
+                .withString(CUSTOMER_ID_ATTRIBUTE, WARM_UP_SYSTEM_ID)
+                .withString(IP_ALLOW_LIST_ATTRIBUTE, "10.0.0.0/8,192.168.0.1");
+        final var binaryItem = new Item().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, WARM_UP_SYSTEM_ID)
+                .withBinary(IDENTITY_BIN_ATTRIBUTE, new PackedIdentity(WARM_UP_SYSTEM_ID,
+                        PackedIdentity.pack(WARM_UP_SYSTEM_ID, passwordHash, "10.0.0.0/8,192.168.0.1")).toAttribute());
+        final var request = ImmutableAuthenticationRequest.builder()
+                .systemId(WARM_UP_SYSTEM_ID)
+                .password(WARM_UP_SYSTEM_ID)
+                .ip("10.1.2.3")
+                .build();
+
+        for (int i = 0; (i < iterations) && !cancelled.getAsBoolean(); i++) {
+            fromDynamoDb(((i % 2) == 0) ? item : binaryItem).ifPresent(identity -> {
+                checkIpAddress(identity, request);
+                this.checkPassword(identity, request);
+                this.passwordHashing.needsRehash(identity.passwordHash());
+            });
+        }
+    }
+
+    /**
+     * Get the authentication information from the identity cache or DynamoDB
      *
      * @param systemId - provided systemID from client
      *
      * @return Item from DynamoDB or exception
      */
     Either<UnsuccessfulResponse, Identity> getCredentials(final String systemId) {
+        if (this.identityCache.isEmpty()) {
+            return this.fetchCredentials(systemId);
+        }
+
+        final var cache = this.identityCache.get();
+        final var cached = cache.get(systemId);
+        if (cached.isPresent()) {
+            return Either.right(cached.get());
+        }
+
+        final var version = cache.version();
+        final var identity = this.fetchCredentials(systemId);
+        identity.forEach(fetched -> cache.put(fetched, version));
+        return identity;
+    }
+
+    /**
+     * Get the authentication information from DynamoDB
+     *
+     * @param systemId - provided systemID from client
+     *
+     * @return Item from DynamoDB or exception
+     */
+    Either<UnsuccessfulResponse, Identity> fetchCredentials(final String systemId) {
         try {
             final var spec = new GetItemSpec().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, systemId);
-            final var item = this.dynamoDBClient.getTable(this.tableName).getItem(spec);
+            final var item = this.replicaRouter.execute(replica -> replica.table().getItem(spec));
             if (item != null) {
                 // identity item
                 final var fromDynamo = fromDynamoDb(item);
@@ -158,12 +420,106 @@ public class AuthenticationServerImpl implements AuthenticationServer {
      * @param identity              - Identity item
      * @param authenticationRequest - Authentication request from client
      *
-     * @return whether the given password matches the stored BCrypt hash
+     * @return whether the given password matches the stored hash
      */
-    private static boolean checkPassword(final Identity identity, final AuthenticationRequest authenticationRequest) {
+    private boolean checkPassword(final Identity identity, final AuthenticationRequest authenticationRequest) {
         final var passwordHash = identity.passwordHash();
 
-        return BCrypt.checkpw(authenticationRequest.password(), passwordHash);
+        return this.passwordHashing.matches(authenticationRequest.password(), passwordHash);
+    }
+
+    /**
+     * Asynchronously replace the stored hash with a hash of the configured algorithm and cost
+     *
+     * @param identity - Identity item with the outdated hash
+     * @param password - verified plain text password
+     */
+    void rehashPassword(final Identity identity, final String password) {
+        final var systemId = identity.systemId();
+        if (!this.pendingRehashes.add(systemId)) {
+            return;
+        }
+
+        try {
+            this.rehashExecutor.execute(() -> {
+                try {
+                    this.updatePasswordHash(identity, password);
+                } finally {
+                    this.pendingRehashes.remove(systemId);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            this.pendingRehashes.remove(systemId);
+            log.debug("Rehash queue is full, skipping rehash for {}", systemId);
+        }
+    }
+
+    /**
+     * Hash the password and write the new hash to DynamoDB, unless the password has been changed in the meantime
+     *
+     * @param identity - Identity item with the outdated hash
+     * @param password - verified plain text password
+     */
+    private void updatePasswordHash(final Identity identity, final String password) {
+        try {
+            final var newHash = this.passwordHashing.hash(password);
+            // caches pack every identity, only one decoded from identity_bin has an identity_bin to update
+            if (identity.fromIdentityBin()) {
+                this.updatePackedPasswordHash((PackedIdentity) identity, newHash);
+            } else {
+                this.updateOnHome(new UpdateItemSpec().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, identity.systemId())
+                        .withUpdateExpression("set " + PASSWORD_HASH_ATTRIBUTE + " = :new")
+                        .withConditionExpression(PASSWORD_HASH_ATTRIBUTE + " = :old")
+                        .withValueMap(new ValueMap().withString(":new", newHash)
+                                .withString(":old", identity.passwordHash())));
+            }
+            this.identityCache.ifPresent(cache -> cache.invalidate(identity.systemId()));
+            incrementRehashCounter("successful");
+            log.debug("Password hash of {} has been rehashed", identity.systemId());
+        } catch (final ConditionalCheckFailedException e) {
+            incrementRehashCounter("outdated");
+            log.info("Password hash of {} changed before the rehash could be written", identity.systemId());
+        } catch (final RuntimeException e) {
+            incrementRehashCounter(UNSUCCESSFUL);
+            log.warn("Unable to write rehashed password to DynamoDB", e);
+        }
+    }
+
+    /**
+     * Write the new hash to identity_bin and, while it exists, to the text password_hash, which has to match
+     * identity_bin for identity_bin to be used
+     */
+    private void updatePackedPasswordHash(final PackedIdentity identity, final String newHash) {
+        final var newIdentityBin = identity.withPasswordHash(newHash).toAttribute();
+        final var oldIdentityBin = identity.toAttribute();
+        try {
+            this.updateOnHome(new UpdateItemSpec().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, identity.systemId())
+                    .withUpdateExpression(
+                            "set " + IDENTITY_BIN_ATTRIBUTE + " = :new, " + PASSWORD_HASH_ATTRIBUTE + " = :newHash")
+                    .withConditionExpression(
+                            IDENTITY_BIN_ATTRIBUTE + " = :old and " + PASSWORD_HASH_ATTRIBUTE + " = :oldHash")
+                    .withValueMap(new ValueMap().withBinary(":new", newIdentityBin)
+                            .withBinary(":old", oldIdentityBin)
+                            .withString(":newHash", newHash)
+                            .withString(":oldHash", identity.passwordHash())));
+        } catch (final ConditionalCheckFailedException e) {
+            // the text attributes have been removed, or the identity changed which fails this update as well
+            this.updateOnHome(new UpdateItemSpec().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, identity.systemId())
+                    .withUpdateExpression("set " + IDENTITY_BIN_ATTRIBUTE + " = :new")
+                    .withConditionExpression(IDENTITY_BIN_ATTRIBUTE + " = :old and attribute_not_exists("
+                            + PASSWORD_HASH_ATTRIBUTE + ")")
+                    .withValueMap(new ValueMap().withBinary(":new", newIdentityBin)
+                            .withBinary(":old", oldIdentityBin)));
+        }
+    }
+
+    void updateOnHome(final UpdateItemSpec spec) {
+        // only the home replica, the condition would not protect a concurrent change made there otherwise
+        this.replicaRouter.executeOnHome(replica -> replica.table().updateItem(spec));
+    }
+
+    private static void incrementRehashCounter(final String status) {
+        Counter.builder(PASSWORD_REHASHES).tag(STATUS, status).register(Metrics.globalRegistry).increment();
     }
 
     /**
@@ -175,15 +531,8 @@ public class AuthenticationServerImpl implements AuthenticationServer {
      * @return whether IP is valid or not
      */
     static boolean checkIpAddress(final Identity identity, final AuthenticationRequest authenticationRequest) {
-        final var ipAllowList = identity.ipAllowList();
-
-        if (ipAllowList.isEmpty()) {
-            return true;
-        }
-
-        final var requestIp = authenticationRequest.ip();
         try {
-            return ipAllowList.get().stream().anyMatch(cidr -> cidr.isInRange(requestIp));
+            return identity.isIpAllowed(authenticationRequest.ip());
         } catch (final IllegalArgumentException e) {
             log.error("invalid IP Address supplied in the AuthenticationRequest", e);
             return false;
@@ -200,6 +549,19 @@ public class AuthenticationServerImpl implements AuthenticationServer {
 
     static Optional<Identity> fromDynamoDb(final Item item) {
         final var systemId = item.getString(SYSTEM_ID_ATTRIBUTE);
+        final var identityBin = item.getBinary(IDENTITY_BIN_ATTRIBUTE);
+        if (identityBin != null) {
+            final var packedIdentity = PackedIdentity.fromAttribute(systemId, identityBin);
+            if (packedIdentity.isEmpty()) {
+                log.warn("Unsupported {} of {}, falling back to the text attributes", IDENTITY_BIN_ATTRIBUTE, systemId);
+            } else if (matchesTextAttributes(item, packedIdentity.get())) {
+                return Optional.of(packedIdentity.get());
+            } else {
+                log.warn("{} of {} differs from the text attributes, falling back to the text attributes",
+                        IDENTITY_BIN_ATTRIBUTE, systemId);
+            }
+        }
+
         final var customerId = item.getString(CUSTOMER_ID_ATTRIBUTE);
         final var passwordHash = item.getString(PASSWORD_HASH_ATTRIBUTE);
         if ((null == customerId) || (null == passwordHash)) {
@@ -214,6 +576,23 @@ public class AuthenticationServerImpl implements AuthenticationServer {
         return Optional.of(builder.build());
     }
 
+    /**
+     * Whether the packed identity matches the text attributes, so a password or ip_allow_list written only to the
+     * text attributes is never shadowed by an outdated identity_bin. Without a text password_hash the text attributes
+     * have been removed and identity_bin is the only identity.
+     */
+    static boolean matchesTextAttributes(final Item item, final PackedIdentity packedIdentity) {
+        final var passwordHash = item.getString(PASSWORD_HASH_ATTRIBUTE);
+        if (passwordHash == null) {
+            return true;
+        }
+        final var customerId = item.getString(CUSTOMER_ID_ATTRIBUTE);
+        final var fromText = PackedIdentity.pack((customerId != null) ? customerId : packedIdentity.customerId(),
+                passwordHash, item.getString(IP_ALLOW_LIST_ATTRIBUTE));
+        return Arrays.equals(new PackedIdentity(packedIdentity.systemId(), fromText).toAttribute(),
+                packedIdentity.toAttribute());
+    }
+
     /**
      * Get the allowed ip list from DynamoDB item
      *
@@ -246,6 +625,17 @@ public class AuthenticationServerImpl implements AuthenticationServer {
         return Optional.of(ipAllowList);
     }
 
+    /**
+     * Increment the error counter and track the system ID and IP of the failed authentication
+     *
+     * @param error                 SmppError
+     * @param authenticationRequest Authentication request from client
+     */
+    void incrementErrorCounter(final SmppError error, final AuthenticationRequest authenticationRequest) {
+        this.incrementErrorCounter(error);
+        this.heavyHitterTracker.record(error, authenticationRequest.systemId(), authenticationRequest.ip());
+    }
+
     /**
      * Increment the error counter in the map for various errors
      *
@@ -13,4 +13,14 @@ public interface Identity {
     String customerId();
     // optional to have an IP allow-list
     Optional<Set<SubnetInfo>> ipAllowList();
+
+    // whether the identity was decoded from the identity_bin attribute, which a rehash has to update then
+    default boolean fromIdentityBin() {
+        return false;
+    }
+
+    // true without an IP allow-list, throws IllegalArgumentException for an invalid IP
+    default boolean isIpAllowed(final String ip) {
+        return ipAllowList().map(ranges -> ranges.stream().anyMatch(range -> range.isInRange(ip))).orElse(true);
+    }
 }
@@ -0,0 +1,50 @@
+package authentication.cache;
+
+import authentication.Identity;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IdentityCache {
+
+    /**
+     * Get the cached identity
+     *
+     * @param systemId - system ID of the identity
+     *
+     * @return the identity or empty if it is not cached or expired
+     */
+    Optional<Identity> get(final String systemId);
+
+    /**
+     * Current version of the cache, incremented by every invalidation
+     */
+    long version();
+
+    /**
+     * Cache the identity, unless an invalidation happened since the identity was fetched
+     *
+     * @param identity - identity fetched from DynamoDB
+     * @param version  - version of the cache before the identity was fetched
+     */
+    void put(final Identity identity, final long version);
+
+    /**
+     * Drop the cached identity, e.g. after the password or the ip_allow_list changed
+     *
+     * @param systemId - system ID of the identity
+     */
+    void invalidate(final String systemId);
+
+    /**
+     * Number of cached identities
+     */
+    int size();
+
+    /**
+     * System IDs of the cached identities, the most recently accessed first, e.g. to prefetch them after a restart
+     *
+     * @param limit - maximum number of system IDs
+     */
+    List<String> systemIds(final int limit);
+}
@@ -0,0 +1,450 @@
+package authentication.cache;
+
+import authentication.Identity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * {@link IdentityCache} keeping the identities in direct memory, so millions of them neither cost an object graph
+ * each nor add to the GC pauses.
+ *
+ * The index is an open-addressing table with linear probing of fixed 20 byte slots: the 64 bit hash of the system
+ * ID, the offset of the record, its expiry and its last access in seconds since the cache was created. The records
+ * are appended to an arena as record length, system ID length, flags, system ID and {@link PackedIdentity}. Removed records are left in the
+ * arena until it is compacted, which happens when the arena or the index run full. The arena is kept at most half
+ * full with live records after a compaction, so the copying is amortized over at least as many inserts as there are
+ * live records.
+ *
+ * A full cache evicts one entry per insert: the eviction hand sweeps the index and takes the first expired entry of
+ * the next few slots, or the first live one when none of them has expired.
+ */
+public class OffHeapIdentityCache implements IdentityCache {
+
+    private static final String IDENTITY_CACHE = "authentication.identity_cache";
+    private static final String RESULT = "result";
+
+    static final int SLOT_BYTES = 20;
+    private static final int HASH_OFFSET = 0;
+    private static final int RECORD_OFFSET = 8;
+    private static final int EXPIRY_OFFSET = 12;
+    private static final int ACCESS_OFFSET = 16;
+    // record length, system ID length and flags of a record in the arena
+    private static final int FLAGS_OFFSET = 4;
+    private static final int KEY_OFFSET = 5;
+    private static final byte FROM_IDENTITY_BIN = 1;
+    private static final int EMPTY = -1;
+    private static final int TOMBSTONE = -2;
+    // the largest index whose size in bytes is still an int
+    private static final int MAX_SLOTS = 1 << 26;
+    static final int MAX_ENTRIES = MAX_SLOTS / 2;
+    private static final int INITIAL_RECORD_BYTES = 128;
+    private static final int MAX_RECORD_BYTES = 0xFFFF;
+    private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+    // slots the eviction hand looks at for an expired entry
+    private static final int EVICTION_PROBES = 32;
+
+    private final AtomicLong version = new AtomicLong();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final long createdMillis;
+    private final int mask;
+    private final Counter hits = Counter.builder(IDENTITY_CACHE).tag(RESULT, "hit").register(Metrics.globalRegistry);
+    private final Counter misses = Counter.builder(IDENTITY_CACHE).tag(RESULT, "miss").register(Metrics.globalRegistry);
+    private final Counter evictions = Counter.builder(IDENTITY_CACHE + ".evictions").register(Metrics.globalRegistry);
+
+    // guarded by the write lock, the buffers are only read with absolute gets under the read lock, apart from the
+    // last access of a slot that a hit writes under the read lock
+    private ByteBuffer index;
+    private ByteBuffer arena;
+    private int arenaEnd;
+    private volatile int size;
+    private int tombstones;
+    // slot index the next eviction starts at
+    private int evictionHand;
+
+    public OffHeapIdentityCache(final Duration ttl, final int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    OffHeapIdentityCache(final Duration ttl, final int maxEntries, final Clock clock) {
+        if ((maxEntries <= 0) || (maxEntries > MAX_ENTRIES)) {
+            throw new IllegalArgumentException("Unsupported number of entries " + maxEntries);
+        }
+        final var slots = slots(maxEntries);
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.createdMillis = clock.millis();
+        this.mask = slots - 1;
+        this.index = newIndex(slots);
+        this.arena = ByteBuffer.allocateDirect(Math.min(maxEntries, 1024) * INITIAL_RECORD_BYTES);
+        Gauge.builder(IDENTITY_CACHE + ".size", this, OffHeapIdentityCache::size).register(Metrics.globalRegistry);
+        Gauge.builder(IDENTITY_CACHE + ".off_heap_bytes", this, OffHeapIdentityCache::offHeapBytes)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Identity> get(final String systemId) {
+        final var key = systemId.getBytes(StandardCharsets.UTF_8);
+        final var hash = hash(key);
+        final var now = this.nowSeconds();
+        byte[] record = null;
+        boolean fromIdentityBin = false;
+        boolean expired = false;
+
+        this.lock.readLock().lock();
+        try {
+            final var slot = this.find(key, hash);
+            if (slot >= 0) {
+                if (this.index.getInt(slot + EXPIRY_OFFSET) <= now) {
+                    expired = true;
+                } else {
+                    final var offset = this.index.getInt(slot + RECORD_OFFSET);
+                    record = this.readIdentity(offset, key.length);
+                    fromIdentityBin = (this.arena.get(offset + FLAGS_OFFSET) & FROM_IDENTITY_BIN) != 0;
+                    this.index.putInt(slot + ACCESS_OFFSET, now);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        if (record == null) {
+            if (expired) {
+                this.removeExpired(key, hash);
+            }
+            this.misses.increment();
+            return Optional.empty();
+        }
+        this.hits.increment();
+        return Optional.of(new PackedIdentity(systemId, record, fromIdentityBin));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return this.version.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final Identity identity, final long version) {
+        final var key = identity.systemId().getBytes(StandardCharsets.UTF_8);
+        final var packed = PackedIdentity.pack(identity);
+        final var recordBytes = KEY_OFFSET + key.length + packed.length;
+        if (recordBytes > MAX_RECORD_BYTES) {
+            return;
+        }
+        final var hash = hash(key);
+
+        this.lock.writeLock().lock();
+        try {
+            // an invalidation raced with the fetch, the identity may be outdated
+            if (this.version.get() != version) {
+                return;
+            }
+
+            final var existing = this.find(key, hash);
+            if (existing >= 0) {
+                this.remove(existing);
+            } else if (this.size >= this.maxEntries) {
+                this.evictOne();
+            }
+            if (((this.size + this.tombstones + 1) * 4L > (this.mask + 1) * 3L)
+                    || (this.arenaEnd + recordBytes > this.arena.capacity())) {
+                this.compact(recordBytes);
+                if (this.arenaEnd + recordBytes > this.arena.capacity()) {
+                    return;
+                }
+            }
+
+            final var offset = this.arenaEnd;
+            this.arena.putShort(offset, (short) recordBytes)
+                    .putShort(offset + 2, (short) key.length)
+                    .put(offset + FLAGS_OFFSET, identity.fromIdentityBin() ? FROM_IDENTITY_BIN : 0)
+                    .put(offset + KEY_OFFSET, key)
+                    .put(offset + KEY_OFFSET + key.length, packed);
+            this.arenaEnd += recordBytes;
+
+            final var slot = this.freeSlot(hash);
+            if (this.index.getInt(slot + RECORD_OFFSET) == TOMBSTONE) {
+                this.tombstones--;
+            }
+            this.index.putLong(slot + HASH_OFFSET, hash)
+                    .putInt(slot + RECORD_OFFSET, offset)
+                    .putInt(slot + EXPIRY_OFFSET, this.expirySeconds())
+                    .putInt(slot + ACCESS_OFFSET, this.nowSeconds());
+            this.size++;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate(final String systemId) {
+        this.version.incrementAndGet();
+        final var key = systemId.getBytes(StandardCharsets.UTF_8);
+        final var hash = hash(key);
+
+        this.lock.writeLock().lock();
+        try {
+            final var slot = this.find(key, hash);
+            if (slot >= 0) {
+                this.remove(slot);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> systemIds(final int limit) {
+        final var now = this.nowSeconds();
+        final var systemIds = new ArrayList<String>(Math.min(limit, this.size));
+
+        this.lock.readLock().lock();
+        try {
+            // last access in the high and slot index in the low bits, sorted by the last access
+            final var accessedSlots = new long[this.size];
+            int live = 0;
+            for (int slot = 0; (slot < this.index.capacity()) && (live < accessedSlots.length); slot += SLOT_BYTES) {
+                if ((this.index.getInt(slot + RECORD_OFFSET) >= 0) && (this.index.getInt(slot + EXPIRY_OFFSET) > now)) {
+                    final long access = this.index.getInt(slot + ACCESS_OFFSET);
+                    accessedSlots[live++] = (access << 32) | (slot / SLOT_BYTES);
+                }
+            }
+            Arrays.sort(accessedSlots, 0, live);
+            for (int i = live - 1; (i >= 0) && (systemIds.size() < limit); i--) {
+                final var offset = this.index.getInt((int) accessedSlots[i] * SLOT_BYTES + RECORD_OFFSET);
+                final var key = new byte[this.arena.getShort(offset + 2) & 0xFFFF];
+                this.arena.get(offset + KEY_OFFSET, key);
+                systemIds.add(new String(key, StandardCharsets.UTF_8));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        return systemIds;
+    }
+
+    /**
+     * Direct memory allocated for the index and the arena
+     */
+    public long offHeapBytes() {
+        this.lock.readLock().lock();
+        try {
+            return (long) this.index.capacity() + this.arena.capacity();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private int find(final byte[] key, final long hash) {
+        for (int i = (int) hash & this.mask, probes = 0; probes <= this.mask; i = (i + 1) & this.mask, probes++) {
+            final var slot = i * SLOT_BYTES;
+            final var offset = this.index.getInt(slot + RECORD_OFFSET);
+            if (offset == EMPTY) {
+                return -1;
+            }
+            if ((offset >= 0) && (this.index.getLong(slot + HASH_OFFSET) == hash) && this.keyEquals(offset, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeSlot(final long hash) {
+        int i = (int) hash & this.mask;
+        while (this.index.getInt((i * SLOT_BYTES) + RECORD_OFFSET) >= 0) {
+            i = (i + 1) & this.mask;
+        }
+        return i * SLOT_BYTES;
+    }
+
+    private boolean keyEquals(final int offset, final byte[] key) {
+        if ((this.arena.getShort(offset + 2) & 0xFFFF) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (this.arena.get(offset + KEY_OFFSET + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] readIdentity(final int offset, final int keyLength) {
+        final var identityOffset = KEY_OFFSET + keyLength;
+        final var record = new byte[(this.arena.getShort(offset) & 0xFFFF) - identityOffset];
+        this.arena.get(offset + identityOffset, record);
+        return record;
+    }
+
+    private void remove(final int slot) {
+        this.index.putInt(slot + RECORD_OFFSET, TOMBSTONE);
+        this.size--;
+        this.tombstones++;
+    }
+
+    private void evictOne() {
+        final var now = this.nowSeconds();
+        int victim = -1;
+        for (int probes = 0; probes <= this.mask; probes++) {
+            final var slot = this.evictionHand * SLOT_BYTES;
+            this.evictionHand = (this.evictionHand + 1) & this.mask;
+            if (this.index.getInt(slot + RECORD_OFFSET) < 0) {
+                continue;
+            }
+            if (this.index.getInt(slot + EXPIRY_OFFSET) <= now) {
+                victim = slot;
+                break;
+            }
+            if (victim < 0) {
+                victim = slot;
+            }
+            if (probes >= EVICTION_PROBES) {
+                break;
+            }
+        }
+        if (victim >= 0) {
+            this.remove(victim);
+            this.evictions.increment();
+        }
+    }
+
+    private void removeExpired(final byte[] key, final long hash) {
+        this.lock.writeLock().lock();
+        try {
+            final var slot = this.find(key, hash);
+            if ((slot >= 0) && (this.index.getInt(slot + EXPIRY_OFFSET) <= this.nowSeconds())) {
+                this.remove(slot);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the live records into a fresh index and arena, dropping expired records and tombstones
+     *
+     * @param reserveBytes - bytes needed in the arena after the compaction
+     */
+    private void compact(final int reserveBytes) {
+        final var now = this.nowSeconds();
+        long liveBytes = reserveBytes;
+        for (int slot = 0; slot < this.index.capacity(); slot += SLOT_BYTES) {
+            final var offset = this.index.getInt(slot + RECORD_OFFSET);
+            if ((offset >= 0) && (this.index.getInt(slot + EXPIRY_OFFSET) > now)) {
+                liveBytes += this.arena.getShort(offset) & 0xFFFF;
+            }
+        }
+
+        long arenaBytes = this.arena.capacity();
+        while ((liveBytes * 2 > arenaBytes) && (arenaBytes < MAX_ARENA_BYTES)) {
+            arenaBytes = Math.min(arenaBytes * 2, MAX_ARENA_BYTES);
+        }
+
+        final var oldIndex = this.index;
+        final var oldArena = this.arena;
+        this.index = newIndex(this.mask + 1);
+        this.arena = ByteBuffer.allocateDirect((int) arenaBytes);
+        this.arenaEnd = 0;
+        this.size = 0;
+        this.tombstones = 0;
+        for (int slot = 0; slot < oldIndex.capacity(); slot += SLOT_BYTES) {
+            final var offset = oldIndex.getInt(slot + RECORD_OFFSET);
+            final var expiry = oldIndex.getInt(slot + EXPIRY_OFFSET);
+            if ((offset < 0) || (expiry <= now)) {
+                continue;
+            }
+            final var recordBytes = oldArena.getShort(offset) & 0xFFFF;
+            if (this.arenaEnd + recordBytes > this.arena.capacity()) {
+                break;
+            }
+            final var hash = oldIndex.getLong(slot + HASH_OFFSET);
+            this.arena.put(this.arenaEnd, oldArena, offset, recordBytes);
+            final var newSlot = this.freeSlot(hash);
+            this.index.putLong(newSlot + HASH_OFFSET, hash)
+                    .putInt(newSlot + RECORD_OFFSET, this.arenaEnd)
+                    .putInt(newSlot + EXPIRY_OFFSET, expiry)
+                    .putInt(newSlot + ACCESS_OFFSET, oldIndex.getInt(slot + ACCESS_OFFSET));
+            this.arenaEnd += recordBytes;
+            this.size++;
+        }
+    }
+
+    private int nowSeconds() {
+        return (int) Math.floorDiv(this.clock.millis() - this.createdMillis, 1000L);
+    }
+
+    private int expirySeconds() {
+        return (int) Math.floorDiv((this.clock.millis() - this.createdMillis) + this.ttlMillis, 1000L);
+    }
+
+    /**
+     * Slots of the index for the given number of entries, the index is kept at most half full with live entries
+     */
+    static int slots(final int maxEntries) {
+        return Math.max(16, Integer.highestOneBit(Math.max(1, maxEntries - 1)) << 2);
+    }
+
+    private static ByteBuffer newIndex(final int slots) {
+        final var index = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+        for (int slot = 0; slot < index.capacity(); slot += SLOT_BYTES) {
+            index.putInt(slot + RECORD_OFFSET, EMPTY);
+        }
+        return index;
+    }
+
+    /**
+     * 64 bit FNV-1a of the UTF-8 system ID, finalized with the MurmurHash3 mixer to spread the low bits
+     */
+    static long hash(final byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53a3ecb83d5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,157 @@
+package authentication.cache;
+
+import authentication.Identity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * {@link IdentityCache} keeping the identities on the heap until their time to live expires. A full cache rejects new
+ * identities; expired ones are removed when they are read, or by a scan of the whole cache that a put into the full
+ * cache runs at most {@link #EXPIRY_SCANS_PER_TTL} times per time to live.
+ */
+public class OnHeapIdentityCache implements IdentityCache {
+
+    private static final String IDENTITY_CACHE = "authentication.identity_cache";
+    private static final String RESULT = "result";
+    static final int EXPIRY_SCANS_PER_TTL = 16;
+
+    private final Map<String, CachedIdentity> identities = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final long ttlMillis;
+    private final long expiryScanIntervalMillis;
+    private final AtomicLong nextExpiryScanMillis = new AtomicLong(Long.MIN_VALUE);
+    private final int maxEntries;
+    private final Clock clock;
+    private final Counter hits = Counter.builder(IDENTITY_CACHE).tag(RESULT, "hit").register(Metrics.globalRegistry);
+    private final Counter misses = Counter.builder(IDENTITY_CACHE).tag(RESULT, "miss").register(Metrics.globalRegistry);
+
+    public OnHeapIdentityCache(final Duration ttl, final int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    OnHeapIdentityCache(final Duration ttl, final int maxEntries, final Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.expiryScanIntervalMillis = Math.max(this.ttlMillis / EXPIRY_SCANS_PER_TTL, 1);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        Gauge.builder(IDENTITY_CACHE + ".size", this.identities, Map::size).register(Metrics.globalRegistry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Identity> get(final String systemId) {
+        final var cached = this.identities.get(systemId);
+        if ((cached == null) || (cached.expiresAtMillis <= this.clock.millis())) {
+            if (cached != null) {
+                this.identities.remove(systemId, cached);
+            }
+            this.misses.increment();
+            return Optional.empty();
+        }
+        cached.lastAccessMillis = this.clock.millis();
+        this.hits.increment();
+        return Optional.of(cached.identity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return this.version.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final Identity identity, final long version) {
+        if ((this.identities.size() >= this.maxEntries) && !this.identities.containsKey(identity.systemId())) {
+            this.evictExpired();
+            if (this.identities.size() >= this.maxEntries) {
+                return;
+            }
+        }
+        final var now = this.clock.millis();
+        this.identities.put(identity.systemId(), new CachedIdentity(identity, now + this.ttlMillis, now));
+
+        // an invalidation raced with the fetch, the identity may be outdated
+        if (this.version.get() != version) {
+            this.identities.remove(identity.systemId());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate(final String systemId) {
+        this.version.incrementAndGet();
+        this.identities.remove(systemId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.identities.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> systemIds(final int limit) {
+        final var now = this.clock.millis();
+        return this.identities.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().expiresAtMillis > now)
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, CachedIdentity> entry) -> entry.getValue().lastAccessMillis).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Remove the expired identities unless another put scanned the cache within the scan interval, a full cache of
+     * live identities would otherwise be scanned on every miss
+     */
+    private void evictExpired() {
+        final var now = this.clock.millis();
+        final var nextScan = this.nextExpiryScanMillis.get();
+        if ((now < nextScan)
+                || !this.nextExpiryScanMillis.compareAndSet(nextScan, now + this.expiryScanIntervalMillis)) {
+            return;
+        }
+        this.identities.values().removeIf(cached -> cached.expiresAtMillis <= now);
+    }
+
+    private static final class CachedIdentity {
+        private final Identity identity;
+        private final long expiresAtMillis;
+        // written by every hit, a lost update between concurrent hits does not matter
+        private volatile long lastAccessMillis;
+
+        CachedIdentity(final Identity identity, final long expiresAtMillis, final long lastAccessMillis) {
+            this.identity = identity;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+}
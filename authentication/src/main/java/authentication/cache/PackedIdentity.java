@@ -0,0 +1,371 @@
+package authentication.cache;
+
+import authentication.Identity;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.net.util.SubnetUtils;
+import org.apache.commons.net.util.SubnetUtils.SubnetInfo;
+
+/**
+ * {@link Identity} backed by a packed record, each field is only decoded when it is accessed.
+ *
+ * The record holds the customer ID and the password hash as UTF-8 bytes with an unsigned short length, followed by
+ * the number of CIDR ranges (-1 without an IP allow-list) and the ranges as address length (4 or 16), address and
+ * prefix length. IPv6 ranges are matched by {@link #isIpAllowed(String)}, {@link #ipAllowList()} only holds the IPv4
+ * ranges as {@link SubnetInfo} is limited to IPv4.
+ *
+ * The identity_bin attribute in DynamoDB is the record prefixed with {@link #ATTRIBUTE_FORMAT}.
+ */
+public final class PackedIdentity implements Identity {
+
+    // first byte of the identity_bin attribute, changes with incompatible layouts
+    public static final byte ATTRIBUTE_FORMAT = 1;
+
+    private static final int IPV4_ADDRESS_BYTES = 4;
+    private static final int IPV6_ADDRESS_BYTES = 16;
+    private static final int NO_IP_ALLOW_LIST = -1;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final String systemId;
+    private final byte[] record;
+    private final boolean fromIdentityBin;
+
+    public PackedIdentity(final String systemId, final byte[] record) {
+        this(systemId, record, false);
+    }
+
+    /**
+     * @param fromIdentityBin - whether the record is the identity_bin attribute of the item, not packed from its text
+     *                        attributes
+     */
+    public PackedIdentity(final String systemId, final byte[] record, final boolean fromIdentityBin) {
+        this.systemId = systemId;
+        this.record = record;
+        this.fromIdentityBin = fromIdentityBin;
+    }
+
+    /**
+     * Pack the identity, the system ID is the key of the record and not part of it
+     *
+     * @param identity - the identity to pack
+     *
+     * @return the packed record
+     */
+    public static byte[] pack(final Identity identity) {
+        if (identity instanceof PackedIdentity) {
+            return ((PackedIdentity) identity).record.clone();
+        }
+        final var ranges = identity.ipAllowList().map(subnets -> subnets.stream().map(subnet -> {
+            final var signature = subnet.getCidrSignature();
+            return new Range(ByteBuffer.allocate(IPV4_ADDRESS_BYTES).putInt(subnet.asInteger(subnet.getAddress()))
+                    .array(), Integer.parseInt(signature.substring(signature.indexOf('/') + 1)));
+        }).collect(Collectors.toList()));
+        return pack(identity.customerId(), identity.passwordHash(), ranges);
+    }
+
+    /**
+     * Pack the text attributes of an identity item, invalid CIDRs of the IP allow-list are skipped like on the text
+     * path of the authentication
+     *
+     * @param customerId   - customer_id attribute
+     * @param passwordHash - password_hash attribute
+     * @param ipAllowList  - comma separated IPv4 and IPv6 CIDRs of the ip_allow_list attribute, may be null
+     *
+     * @return the packed record
+     */
+    public static byte[] pack(final String customerId, final String passwordHash, final String ipAllowList) {
+        final var ranges = Optional.ofNullable(ipAllowList).map(cidrs -> Arrays.stream(cidrs.split(","))
+                .map(PackedIdentity::parseCidr)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList()));
+        return pack(customerId, passwordHash, ranges);
+    }
+
+    /**
+     * Identity of the identity_bin attribute of a DynamoDB item
+     *
+     * @param systemId  - system ID of the item
+     * @param attribute - identity_bin attribute
+     *
+     * @return the identity or empty if the attribute has an unknown format or is malformed
+     */
+    public static Optional<PackedIdentity> fromAttribute(final String systemId, final byte[] attribute) {
+        if ((attribute.length == 0) || (attribute[0] != ATTRIBUTE_FORMAT)) {
+            return Optional.empty();
+        }
+        final var record = Arrays.copyOfRange(attribute, 1, attribute.length);
+        return isWellFormed(record) ? Optional.of(new PackedIdentity(systemId, record, true)) : Optional.empty();
+    }
+
+    /**
+     * The identity as identity_bin attribute
+     */
+    public byte[] toAttribute() {
+        final var attribute = new byte[this.record.length + 1];
+        attribute[0] = ATTRIBUTE_FORMAT;
+        System.arraycopy(this.record, 0, attribute, 1, this.record.length);
+        return attribute;
+    }
+
+    /**
+     * Copy of the identity with a new password hash
+     *
+     * @param passwordHash - new password hash
+     */
+    public PackedIdentity withPasswordHash(final String passwordHash) {
+        final var customerId = utf8(this.customerId());
+        final var hash = utf8(passwordHash);
+        final var rangesOffset = skipString(skipString(0));
+        final var ranges = this.record.length - rangesOffset;
+
+        final var buffer = ByteBuffer.allocate(2 + customerId.length + 2 + hash.length + ranges);
+        buffer.putShort((short) customerId.length).put(customerId);
+        buffer.putShort((short) hash.length).put(hash);
+        buffer.put(this.record, rangesOffset, ranges);
+        return new PackedIdentity(this.systemId, buffer.array(), this.fromIdentityBin);
+    }
+
+    @Override
+    public String systemId() {
+        return this.systemId;
+    }
+
+    @Override
+    public boolean fromIdentityBin() {
+        return this.fromIdentityBin;
+    }
+
+    @Override
+    public String customerId() {
+        return readString(0);
+    }
+
+    @Override
+    public String passwordHash() {
+        return readString(skipString(0));
+    }
+
+    @Override
+    public Optional<Set<SubnetInfo>> ipAllowList() {
+        final var buffer = ByteBuffer.wrap(this.record);
+        buffer.position(skipString(skipString(0)));
+        final var rangeCount = buffer.getShort();
+        if (rangeCount == NO_IP_ALLOW_LIST) {
+            return Optional.empty();
+        }
+
+        final Set<SubnetInfo> ranges = new HashSet<>(rangeCount * 2);
+        for (int i = 0; i < rangeCount; i++) {
+            final var address = new byte[buffer.get()];
+            buffer.get(address);
+            final var prefixLength = buffer.get();
+            if (address.length != IPV4_ADDRESS_BYTES) {
+                continue;
+            }
+            final var subnet = new SubnetUtils(toDottedQuad(address) + '/' + prefixLength);
+            subnet.setInclusiveHostCount(true);
+            ranges.add(subnet.getInfo());
+        }
+        return Optional.of(ranges);
+    }
+
+    /**
+     * Check the IP against the packed ranges without decoding them
+     */
+    @Override
+    public boolean isIpAllowed(final String ip) {
+        final var buffer = ByteBuffer.wrap(this.record);
+        buffer.position(skipString(skipString(0)));
+        final var rangeCount = buffer.getShort();
+        if (rangeCount == NO_IP_ALLOW_LIST) {
+            return true;
+        }
+
+        final var address = parseAddress(ip);
+        for (int i = 0; i < rangeCount; i++) {
+            final var addressLength = buffer.get();
+            final var rangeOffset = buffer.position();
+            final var prefixLength = buffer.get(rangeOffset + addressLength) & 0xFF;
+            buffer.position(rangeOffset + addressLength + 1);
+            if ((addressLength == address.length) && inRange(address, this.record, rangeOffset, prefixLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedIdentity{systemId=" + this.systemId + ", bytes=" + this.record.length + '}';
+    }
+
+    private String readString(final int offset) {
+        return new String(this.record, offset + 2, readLength(offset), StandardCharsets.UTF_8);
+    }
+
+    private int skipString(final int offset) {
+        return skipString(this.record, offset);
+    }
+
+    private int readLength(final int offset) {
+        return readLength(this.record, offset);
+    }
+
+    private static int skipString(final byte[] record, final int offset) {
+        return offset + 2 + readLength(record, offset);
+    }
+
+    private static int readLength(final byte[] record, final int offset) {
+        return ((record[offset] & 0xFF) << 8) | (record[offset + 1] & 0xFF);
+    }
+
+    private static byte[] pack(final String customerId,
+            final String passwordHash,
+            final Optional<List<Range>> ranges) {
+        final var customerIdBytes = utf8(customerId);
+        final var passwordHashBytes = utf8(passwordHash);
+        final var rangeBytes = ranges.map(list -> list.stream().mapToInt(range -> range.address.length + 2).sum())
+                .orElse(0);
+
+        final var buffer =
+                ByteBuffer.allocate(2 + customerIdBytes.length + 2 + passwordHashBytes.length + 2 + rangeBytes);
+        buffer.putShort((short) customerIdBytes.length).put(customerIdBytes);
+        buffer.putShort((short) passwordHashBytes.length).put(passwordHashBytes);
+        buffer.putShort((short) ranges.map(List::size).orElse(NO_IP_ALLOW_LIST).intValue());
+        ranges.ifPresent(list -> list.forEach(range ->
+                buffer.put((byte) range.address.length).put(range.address).put((byte) range.prefixLength)));
+        return buffer.array();
+    }
+
+    private static boolean isWellFormed(final byte[] record) {
+        try {
+            final var buffer = ByteBuffer.wrap(record);
+            buffer.position(skipString(record, skipString(record, 0)));
+            final var rangeCount = buffer.getShort();
+            for (int i = 0; i < rangeCount; i++) {
+                final var addressLength = buffer.get();
+                if ((addressLength != IPV4_ADDRESS_BYTES) && (addressLength != IPV6_ADDRESS_BYTES)) {
+                    return false;
+                }
+                buffer.position(buffer.position() + addressLength);
+                if ((buffer.get() & 0xFF) > (addressLength * Byte.SIZE)) {
+                    return false;
+                }
+            }
+            return (rangeCount >= NO_IP_ALLOW_LIST) && !buffer.hasRemaining();
+        } catch (final RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean inRange(final byte[] address,
+            final byte[] record,
+            final int rangeOffset,
+            final int prefixLength) {
+        final var fullBytes = prefixLength / Byte.SIZE;
+        for (int i = 0; i < fullBytes; i++) {
+            if (address[i] != record[rangeOffset + i]) {
+                return false;
+            }
+        }
+        final var remainingBits = prefixLength % Byte.SIZE;
+        if (remainingBits == 0) {
+            return true;
+        }
+        final var mask = 0xFF << (Byte.SIZE - remainingBits);
+        return ((address[fullBytes] ^ record[rangeOffset + fullBytes]) & mask) == 0;
+    }
+
+    /**
+     * Parse an IPv4 or IPv6 CIDR, a single address is a range of one
+     */
+    private static Optional<Range> parseCidr(final String rawCidr) {
+        final var cidr = rawCidr.trim();
+        final var separator = cidr.indexOf('/');
+        try {
+            final var address = parseAddress((separator < 0) ? cidr : cidr.substring(0, separator));
+            final var prefixLength =
+                    (separator < 0) ? (address.length * Byte.SIZE) : Integer.parseInt(cidr.substring(separator + 1));
+            if ((prefixLength < 0) || (prefixLength > (address.length * Byte.SIZE))) {
+                return Optional.empty();
+            }
+            return Optional.of(new Range(address, prefixLength));
+        } catch (final IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] parseAddress(final String ip) {
+        if (ip.indexOf(':') < 0) {
+            return ByteBuffer.allocate(IPV4_ADDRESS_BYTES).putInt(parseIpv4(ip)).array();
+        }
+        // only literals, so the lookup never resolves a host name
+        for (int i = 0; i < ip.length(); i++) {
+            final var c = ip.charAt(i);
+            if ((Character.digit(c, 16) < 0) && (c != ':') && (c != '.')) {
+                throw new IllegalArgumentException("Could not parse [" + ip + "]");
+            }
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (final UnknownHostException e) {
+            throw new IllegalArgumentException("Could not parse [" + ip + "]", e);
+        }
+    }
+
+    private static byte[] utf8(final String value) {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Field of " + bytes.length + " bytes is too long to be packed");
+        }
+        return bytes;
+    }
+
+    private static int parseIpv4(final String ip) {
+        int address = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            final var c = (i < ip.length()) ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if ((octet < 0) || (octet > 255) || (++octets > IPV4_ADDRESS_BYTES)) {
+                    throw new IllegalArgumentException("Could not parse [" + ip + "]");
+                }
+                address = (address << 8) | octet;
+                octet = -1;
+            } else if ((c >= '0') && (c <= '9') && (octet < 256)) {
+                octet = (octet < 0) ? (c - '0') : ((octet * 10) + (c - '0'));
+            } else {
+                throw new IllegalArgumentException("Could not parse [" + ip + "]");
+            }
+        }
+        if (octets != IPV4_ADDRESS_BYTES) {
+            throw new IllegalArgumentException("Could not parse [" + ip + "]");
+        }
+        return address;
+    }
+
+    private static String toDottedQuad(final byte[] address) {
+        return (address[0] & 0xFF) + "." + (address[1] & 0xFF) + '.' + (address[2] & 0xFF) + '.' + (address[3] & 0xFF);
+    }
+
+    private static final class Range {
+        private final byte[] address;
+        private final int prefixLength;
+
+        Range(final byte[] address, final int prefixLength) {
+            this.address = address;
+            this.prefixLength = prefixLength;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package authentication.execution;
+
+import protocol.configuration.IdentityConfiguration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class AuthenticationExecutors {
+
+    private static final String THREAD_NAME_PREFIX = "authentication-";
+
+    private AuthenticationExecutors() {
+    }
+
+    /**
+     * Create the executor for blocking authentications based on the configured execution mode
+     */
+    public static ExecutorService create(final IdentityConfiguration configuration) {
+        switch (configuration.executionMode()) {
+            case VIRTUAL:
+                VirtualThreadPinningMonitor.start(configuration.pinnedThresholdMillis());
+                return newVirtualThreadExecutor();
+            case PLATFORM:
+            default:
+                return newPlatformThreadExecutor(configuration.platformThreads());
+        }
+    }
+
+    /**
+     * Executor starting one virtual thread per authentication
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory());
+    }
+
+    /**
+     * Executor with a fixed pool of daemon platform threads
+     */
+    public static ExecutorService newPlatformThreadExecutor(final int threads) {
+        final var threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final var thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
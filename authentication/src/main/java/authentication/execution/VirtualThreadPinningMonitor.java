@@ -0,0 +1,75 @@
+package authentication.execution;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, e.g. inside a synchronized block of the
+ * DynamoDB client, based on the {@code jdk.VirtualThreadPinned} Flight Recorder event
+ */
+@Slf4j
+public final class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String PINNED_METRIC = "authentication.virtual_threads.pinned";
+    private static final int LOGGED_FRAMES = 5;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private VirtualThreadPinningMonitor() {
+    }
+
+    /**
+     * Start the monitor once per JVM
+     *
+     * @param thresholdMillis - pinned durations below the threshold are ignored
+     */
+    static void start(final long thresholdMillis) {
+        if (!STARTED.compareAndSet(false, true)) {
+            return;
+        }
+
+        final var counter = Counter.builder(PINNED_METRIC).register(Metrics.globalRegistry);
+        final var timer = Timer.builder(PINNED_METRIC + ".duration").register(Metrics.globalRegistry);
+        try {
+            final var stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, event -> {
+                counter.increment();
+                timer.record(event.getDuration());
+                log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), topFrames(event));
+            });
+            stream.startAsync();
+            log.info("Monitoring virtual threads pinned for more than {} ms", thresholdMillis);
+        } catch (final RuntimeException e) {
+            STARTED.set(false);
+            log.warn("Unable to start the virtual thread pinning monitor", e);
+        }
+    }
+
+    private static String topFrames(final RecordedEvent event) {
+        final var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return "unknown";
+        }
+
+        final var frames = new StringBuilder();
+        for (final RecordedFrame frame : stackTrace.getFrames().subList(0,
+                Math.min(LOGGED_FRAMES, stackTrace.getFrames().size()))) {
+            frames.append("\n\t")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return frames.toString();
+    }
+}
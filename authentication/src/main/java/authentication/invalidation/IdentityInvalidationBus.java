@@ -0,0 +1,103 @@
+package authentication.invalidation;
+
+import authentication.cache.IdentityCache;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops identities from the local cache and broadcasts the invalidation to every other node. Invalidations are
+ * collected for a short batch interval, de-duplicated and sent as one batch per interval.
+ */
+@Slf4j
+public class IdentityInvalidationBus implements Closeable {
+
+    private static final String INVALIDATIONS = "authentication.identity_invalidations";
+    private static final String SOURCE = "source";
+
+    private final IdentityCache identityCache;
+    private final InvalidationTransport transport;
+    private final ScheduledExecutorService scheduler;
+    private final Counter localInvalidations =
+            Counter.builder(INVALIDATIONS).tag(SOURCE, "local").register(Metrics.globalRegistry);
+    private final Counter remoteInvalidations =
+            Counter.builder(INVALIDATIONS).tag(SOURCE, "remote").register(Metrics.globalRegistry);
+    // guarded by this
+    private Set<String> pending = new LinkedHashSet<>();
+
+    @Builder
+    public IdentityInvalidationBus(final @NonNull IdentityCache identityCache,
+            final @NonNull InvalidationTransport transport,
+            final long batchMillis) {
+        this.identityCache = identityCache;
+        this.transport = transport;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "identity-invalidation-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.transport.subscribe(this::apply);
+        this.scheduler.scheduleWithFixedDelay(this::flush, batchMillis, batchMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Invalidate the identity on this node immediately and on every other node with the next batch
+     *
+     * @param systemId - system ID of the changed identity
+     */
+    public void invalidate(final String systemId) {
+        this.identityCache.invalidate(systemId);
+        this.localInvalidations.increment();
+        synchronized (this) {
+            this.pending.add(systemId);
+        }
+    }
+
+    /**
+     * Broadcast the pending invalidations
+     */
+    void flush() {
+        final Set<String> batch;
+        synchronized (this) {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+            batch = this.pending;
+            this.pending = new LinkedHashSet<>();
+        }
+
+        try {
+            this.transport.publish(batch);
+            log.debug("Broadcast {} identity invalidations", batch.size());
+        } catch (final RuntimeException e) {
+            log.warn("Unable to broadcast {} identity invalidations", batch.size(), e);
+        }
+    }
+
+    private void apply(final Collection<String> systemIds) {
+        Set.copyOf(systemIds).forEach(this.identityCache::invalidate);
+        this.remoteInvalidations.increment(systemIds.size());
+    }
+
+    /**
+     * Broadcast the pending invalidations and close the transport
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdown();
+        this.flush();
+        this.transport.close();
+    }
+}
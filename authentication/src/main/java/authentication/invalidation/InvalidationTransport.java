@@ -0,0 +1,28 @@
+package authentication.invalidation;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface InvalidationTransport extends Closeable {
+
+    /**
+     * Broadcast a batch of invalidated system IDs to every other node
+     *
+     * @param systemIds - de-duplicated system IDs
+     */
+    void publish(final Collection<String> systemIds);
+
+    /**
+     * Register the listener for batches received from other nodes
+     *
+     * @param listener - called with every received batch
+     */
+    void subscribe(final Consumer<Collection<String>> listener);
+
+    /**
+     * Stop receiving and release the transport resources
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,265 @@
+package authentication.invalidation;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link InvalidationTransport} sending batches as UDP datagrams to a multicast group or a list of peers.
+ * Datagrams are fire-and-forget, a lost datagram leaves the identity cached until its time to live expires.
+ *
+ * Every datagram carries an HMAC-SHA256 of a secret shared by the nodes and its send time, datagrams with another
+ * MAC or older than {@link #MAX_AGE_MILLIS} are dropped, so a host that can reach the port cannot flush the caches.
+ *
+ * Datagram format: version (1 byte), origin node (8 bytes), send time in epoch millis (8 bytes), count (2 bytes) and
+ * per system ID its length (2 bytes) followed by the UTF-8 bytes, then the MAC (32 bytes) of all preceding bytes.
+ */
+@Slf4j
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+    private static final byte VERSION = 2;
+    // stays below the usual MTU, larger batches are split into several datagrams
+    static final int MAX_DATAGRAM_SIZE = 1200;
+    static final long MAX_AGE_MILLIS = 10_000;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_SIZE = 32;
+    private static final int COUNT_OFFSET = 1 + Long.BYTES + Long.BYTES;
+    private static final int HEADER_SIZE = COUNT_OFFSET + Short.BYTES;
+
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final SecretKeySpec secret;
+    private final Clock clock;
+    private final DatagramChannel channel;
+    private final List<SocketAddress> targets;
+    private final List<Consumer<Collection<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param bindAddress    - local address of the interface the nodes reach each other on
+     * @param port           - local port, also the port of the multicast group
+     * @param multicastGroup - group to join on the interface of the bind address and send to, may be null
+     * @param peers          - unicast targets, e.g. every other node, when there is no multicast group
+     * @param secret         - key of the datagram MACs, the same on every node
+     */
+    public UdpInvalidationTransport(final InetAddress bindAddress, final int port, final InetAddress multicastGroup,
+            final List<InetSocketAddress> peers, final byte[] secret) throws IOException {
+        this(bindAddress, port, multicastGroup, peers, secret, Clock.systemUTC());
+    }
+
+    UdpInvalidationTransport(final InetAddress bindAddress, final int port, final InetAddress multicastGroup,
+            final List<InetSocketAddress> peers, final byte[] secret, final Clock clock) throws IOException {
+        if ((multicastGroup != null) && !peers.isEmpty()) {
+            // the socket is bound to the group, unicast datagrams would not reach it
+            throw new IllegalArgumentException("Either a multicast group or peers are supported, not both");
+        }
+        this.secret = new SecretKeySpec(secret, MAC_ALGORITHM);
+        this.clock = clock;
+        final var family = (((multicastGroup != null) ? multicastGroup : bindAddress).getAddress().length == 16)
+                ? StandardProtocolFamily.INET6
+                : StandardProtocolFamily.INET;
+        this.channel = DatagramChannel.open(family).setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        this.targets = new ArrayList<>(peers);
+
+        if (multicastGroup != null) {
+            final var networkInterface = NetworkInterface.getByInetAddress(bindAddress);
+            if (networkInterface == null) {
+                this.channel.close();
+                throw new IOException("No network interface with the address " + bindAddress);
+            }
+            // only datagrams sent to the group, a socket bound to the wildcard address would receive any
+            this.channel.bind(new InetSocketAddress(multicastGroup, port));
+            this.channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            this.channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            this.channel.join(multicastGroup, networkInterface);
+            this.targets.add(new InetSocketAddress(multicastGroup, port));
+        } else {
+            this.channel.bind(new InetSocketAddress(bindAddress, port));
+        }
+
+        final var receiver = new Thread(this::receive, "identity-invalidation-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Local port of the transport, useful when bound to port 0
+     */
+    public int localPort() throws IOException {
+        return ((InetSocketAddress) this.channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Collection<String> systemIds) {
+        for (final ByteBuffer datagram : encode(this.nodeId, this.clock.millis(), systemIds)) {
+            this.sign(datagram);
+            for (final SocketAddress target : this.targets) {
+                try {
+                    this.channel.send(datagram.duplicate(), target);
+                } catch (final IOException e) {
+                    log.warn("Unable to send identity invalidations to {}", target, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(final Consumer<Collection<String>> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (final IOException e) {
+            log.warn("Unable to close the identity invalidation channel", e);
+        }
+    }
+
+    private void receive() {
+        final var buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+        while (this.channel.isOpen()) {
+            try {
+                buffer.clear();
+                this.channel.receive(buffer);
+                buffer.flip();
+                this.decode(buffer);
+            } catch (final ClosedChannelException e) {
+                return;
+            } catch (final IOException | RuntimeException e) {
+                log.warn("Dropping malformed identity invalidation datagram", e);
+            }
+        }
+    }
+
+    private void decode(final ByteBuffer datagram) {
+        if ((datagram.remaining() < (HEADER_SIZE + MAC_SIZE)) || (datagram.get(0) != VERSION)) {
+            log.debug("Dropping identity invalidation datagram with unknown format");
+            return;
+        }
+        if (!this.verify(datagram)) {
+            log.warn("Dropping identity invalidation datagram with an invalid MAC");
+            return;
+        }
+        datagram.get();
+        // multicast loops our own datagrams back
+        if (datagram.getLong() == this.nodeId) {
+            return;
+        }
+        if (Math.abs(this.clock.millis() - datagram.getLong()) > MAX_AGE_MILLIS) {
+            log.warn("Dropping outdated identity invalidation datagram");
+            return;
+        }
+
+        final var count = Short.toUnsignedInt(datagram.getShort());
+        final List<String> systemIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final var bytes = new byte[Short.toUnsignedInt(datagram.getShort())];
+            datagram.get(bytes);
+            systemIds.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        this.listeners.forEach(listener -> listener.accept(systemIds));
+    }
+
+    /**
+     * Append the MAC of the datagram contents, the datagram has room for it
+     */
+    private void sign(final ByteBuffer datagram) {
+        final var mac = this.mac();
+        mac.update(datagram.duplicate());
+        final var end = datagram.limit();
+        datagram.limit(end + MAC_SIZE).position(end);
+        datagram.put(mac.doFinal()).flip();
+    }
+
+    /**
+     * Whether the MAC at the end of the datagram matches its contents, the limit is moved before the MAC
+     */
+    private boolean verify(final ByteBuffer datagram) {
+        final var end = datagram.limit() - MAC_SIZE;
+        final var received = new byte[MAC_SIZE];
+        datagram.get(end, received);
+        datagram.limit(end);
+        final var mac = this.mac();
+        mac.update(datagram.duplicate());
+        return MessageDigest.isEqual(mac.doFinal(), received);
+    }
+
+    private Mac mac() {
+        try {
+            final var mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(this.secret);
+            return mac;
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create the identity invalidation MAC", e);
+        }
+    }
+
+    /**
+     * Encode the system IDs into as few datagrams as possible, each leaving room for the MAC
+     */
+    static List<ByteBuffer> encode(final long nodeId, final long timeMillis, final Collection<String> systemIds) {
+        final List<ByteBuffer> datagrams = new ArrayList<>();
+        ByteBuffer datagram = null;
+        int count = 0;
+        for (final String systemId : systemIds) {
+            final var bytes = systemId.getBytes(StandardCharsets.UTF_8);
+            if ((HEADER_SIZE + Short.BYTES + bytes.length + MAC_SIZE) > MAX_DATAGRAM_SIZE) {
+                log.warn("Skipping invalidation of oversized system ID");
+                continue;
+            }
+            if ((datagram == null) || ((datagram.remaining() - MAC_SIZE) < (Short.BYTES + bytes.length))) {
+                if (datagram != null) {
+                    datagrams.add(finish(datagram, count));
+                }
+                datagram = ByteBuffer.allocate(MAX_DATAGRAM_SIZE)
+                        .put(VERSION)
+                        .putLong(nodeId)
+                        .putLong(timeMillis)
+                        .putShort((short) 0);
+                count = 0;
+            }
+            datagram.putShort((short) bytes.length).put(bytes);
+            count++;
+        }
+        if (datagram != null) {
+            datagrams.add(finish(datagram, count));
+        }
+        return datagrams;
+    }
+
+    private static ByteBuffer finish(final ByteBuffer datagram, final int count) {
+        datagram.putShort(COUNT_OFFSET, (short) count);
+        return datagram.flip();
+    }
+}
@@ -0,0 +1,38 @@
+package authentication.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the flight recorder events for the phases of an authentication
+ */
+@Category({"SMPP", "Authentication"})
+@StackTrace(false)
+public abstract class AuthenticationPhaseEvent extends Event {
+
+    public static final String OUTCOME_OK = "OK";
+
+    @Label("System ID")
+    public String systemId;
+
+    @Label("Outcome")
+    @Description("SmppError code or OK")
+    public String outcome;
+
+    /**
+     * Commit the event, it is only recorded when enabled and above its threshold
+     *
+     * @param systemId - provided systemID from client
+     * @param outcome  - SmppError code or OK
+     */
+    public void commit(final String systemId, final String outcome) {
+        if (this.shouldCommit()) {
+            this.systemId = systemId;
+            this.outcome = outcome;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package authentication.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("smpp.authentication.IdentityFetch")
+@Label("Identity Fetch")
+@Description("Lookup of the identity in DynamoDB")
+@Threshold("20 ms")
+public class IdentityFetchEvent extends AuthenticationPhaseEvent {
+}
@@ -0,0 +1,13 @@
+package authentication.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("smpp.authentication.IpCheck")
+@Label("IP Check")
+@Description("Check of the remote IP against the ip_allow_list")
+@Threshold("1 ms")
+public class IpCheckEvent extends AuthenticationPhaseEvent {
+}
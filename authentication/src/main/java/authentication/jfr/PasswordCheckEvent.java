@@ -0,0 +1,13 @@
+package authentication.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("smpp.authentication.PasswordCheck")
+@Label("Password Check")
+@Description("Verification of the password against the stored hash")
+@Threshold("100 ms")
+public class PasswordCheckEvent extends AuthenticationPhaseEvent {
+}
@@ -0,0 +1,106 @@
+package authentication.latency;
+
+import protocol.configuration.LatencyEqualizationConfiguration;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+
+/**
+ * Releases failed authentications after a latency drawn from the latest successful ones, so the response time does
+ * not tell an unknown system_id from a wrong password. The delays wait on a timer wheel, neither burning CPU nor
+ * parking a thread per failure. A failure is never released early: once too many are waiting, the caller has to
+ * reject new requests before their lookup, see {@link #isSaturated()}.
+ */
+public class LatencyEqualizer {
+
+    private static final String DELAY = "authentication.latency_equalization.delay";
+    private static final String PENDING = "authentication.latency_equalization.pending";
+
+    // ring buffer of the latest success latencies
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final long maxDelayNanos;
+    private final long maxPendingDelays;
+    private final AtomicLong pendingDelays = new AtomicLong();
+    private final Timer timer;
+    private final io.micrometer.core.instrument.Timer delays =
+            io.micrometer.core.instrument.Timer.builder(DELAY).register(Metrics.globalRegistry);
+
+    public LatencyEqualizer(final LatencyEqualizationConfiguration configuration) {
+        this(new HashedWheelTimer(runnable -> {
+            final var thread = new Thread(runnable, "latency-equalization");
+            thread.setDaemon(true);
+            return thread;
+        }, configuration.tickMillis(), TimeUnit.MILLISECONDS), configuration.sampleSize(),
+                Duration.ofMillis(configuration.maxDelayMillis()), configuration.maxPendingDelays());
+    }
+
+    LatencyEqualizer(final Timer timer, final int sampleSize, final Duration maxDelay, final long maxPendingDelays) {
+        this.timer = timer;
+        this.samples = new AtomicLongArray(sampleSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxPendingDelays = maxPendingDelays;
+        Gauge.builder(PENDING, this.pendingDelays, AtomicLong::get).register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Whether too many failures are waiting for their release to accept another request
+     */
+    public boolean isSaturated() {
+        return this.pendingDelays.get() >= this.maxPendingDelays;
+    }
+
+    /**
+     * Record the latency of a successful authentication
+     *
+     * @param latencyNanos - time from the request to the response
+     */
+    public void recordSuccess(final long latencyNanos) {
+        final var index = this.recorded.getAndIncrement();
+        this.samples.set((int) (index % this.samples.length()), latencyNanos);
+    }
+
+    /**
+     * Complete with the failure once its latency matches one drawn from the successful authentications
+     *
+     * @param failure      - response of the failed authentication
+     * @param elapsedNanos - time already spent since the request
+     *
+     * @return the failure, completed on the timer thread when it is delayed
+     */
+    public <T> CompletableFuture<T> release(final T failure, final long elapsedNanos) {
+        final var delayNanos = this.sampleNanos() - elapsedNanos;
+        if (delayNanos <= 0) {
+            return CompletableFuture.completedFuture(failure);
+        }
+
+        final var released = new CompletableFuture<T>();
+        this.pendingDelays.incrementAndGet();
+        this.timer.newTimeout(timeout -> {
+            this.pendingDelays.decrementAndGet();
+            released.complete(failure);
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        this.delays.record(delayNanos, TimeUnit.NANOSECONDS);
+        return released;
+    }
+
+    /**
+     * Latency drawn from the recorded successes, capped at the maximum delay and 0 before the first success
+     */
+    long sampleNanos() {
+        final var filled = (int) Math.min(this.recorded.get(), this.samples.length());
+        if (filled == 0) {
+            return 0;
+        }
+        return Math.min(this.samples.get(ThreadLocalRandom.current().nextInt(filled)), this.maxDelayNanos);
+    }
+}
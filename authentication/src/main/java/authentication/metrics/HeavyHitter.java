@@ -0,0 +1,12 @@
+package authentication.metrics;
+
+import org.immutables.value.Value.Immutable;
+
+@Immutable
+public interface HeavyHitter {
+    String key();
+    // estimated number of occurrences, never lower than the true count
+    long count();
+    // maximum overestimation of the count
+    long error();
+}
@@ -0,0 +1,15 @@
+package authentication.metrics;
+
+/**
+ * Attribute of a failed authentication that heavy hitters are tracked for
+ */
+public enum HeavyHitterDimension {
+    SYSTEM_ID("system_id"),
+    IP("ip");
+
+    public final String tag;
+
+    HeavyHitterDimension(final String tag) {
+        this.tag = tag;
+    }
+}
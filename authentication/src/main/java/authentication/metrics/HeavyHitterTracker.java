@@ -0,0 +1,162 @@
+package authentication.metrics;
+
+import protocol.SmppError;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks the system_ids and IPs causing the most failed authentications per {@link SmppError} over a sliding window.
+ * Every window is split into buckets of Space-Saving sketches, so the memory is fixed regardless of the number of
+ * distinct keys. Only the errors of the authentication itself are tracked, see {@link #TRACKED_ERRORS}.
+ */
+public class HeavyHitterTracker {
+
+    private static final String HEAVY_HITTERS = "authentication.heavy_hitters";
+    private static final int DEFAULT_CAPACITY = 100;
+    private static final Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+    private static final int DEFAULT_BUCKETS = 5;
+    // SMPP_3006 is raised by the session limit of the SMPP server and never reaches the tracker
+    public static final Set<SmppError> TRACKED_ERRORS = Collections.unmodifiableSet(
+            EnumSet.range(SmppError.SMPP_3001, SmppError.SMPP_3005));
+
+    private final Map<SmppError, Map<HeavyHitterDimension, SlidingWindow>> windows = new EnumMap<>(SmppError.class);
+    private final Clock clock;
+    private final long bucketMillis;
+
+    public HeavyHitterTracker() {
+        this(DEFAULT_CAPACITY, DEFAULT_WINDOW, DEFAULT_BUCKETS, Clock.systemUTC());
+    }
+
+    /**
+     * @param capacity - counters per bucket, keys beyond the capacity are approximated
+     * @param window   - length of the sliding window
+     * @param buckets  - number of buckets the window slides by
+     * @param clock    - clock deciding the current bucket
+     */
+    public HeavyHitterTracker(final int capacity, final Duration window, final int buckets, final Clock clock) {
+        this.clock = clock;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        for (final SmppError error : TRACKED_ERRORS) {
+            final Map<HeavyHitterDimension, SlidingWindow> dimensions = new EnumMap<>(HeavyHitterDimension.class);
+            for (final HeavyHitterDimension dimension : HeavyHitterDimension.values()) {
+                dimensions.put(dimension, new SlidingWindow(capacity, buckets));
+            }
+            this.windows.put(error, dimensions);
+        }
+    }
+
+    /**
+     * Record a failed authentication, errors that are not tracked are ignored
+     *
+     * @param error    - SmppError of the response
+     * @param systemId - provided systemID from client
+     * @param ip       - remote IP of the client
+     */
+    public void record(final SmppError error, final String systemId, final String ip) {
+        final var dimensions = this.windows.get(error);
+        if (dimensions == null) {
+            return;
+        }
+        final var epoch = this.currentEpoch();
+        if (systemId != null) {
+            dimensions.get(HeavyHitterDimension.SYSTEM_ID).offer(systemId, epoch);
+        }
+        if (ip != null) {
+            dimensions.get(HeavyHitterDimension.IP).offer(ip, epoch);
+        }
+    }
+
+    /**
+     * Get the heavy hitters of the current window
+     *
+     * @param error     - SmppError of the failed authentications
+     * @param dimension - system_id or IP
+     * @param limit     - maximum number of heavy hitters
+     *
+     * @return heavy hitters sorted by descending count, empty for an error that is not tracked
+     */
+    public List<HeavyHitter> top(final SmppError error, final HeavyHitterDimension dimension, final int limit) {
+        final var dimensions = this.windows.get(error);
+        return (dimensions != null) ? dimensions.get(dimension).top(this.currentEpoch(), limit) : List.of();
+    }
+
+    /**
+     * Register one gauge per tracked error, dimension and rank with the count of the heavy hitter at that rank. The
+     * keys themselves are not tagged, which keeps the number of time series fixed.
+     *
+     * @param registry - meter registry
+     * @param ranks    - number of ranks per error and dimension
+     */
+    public void registerGauges(final MeterRegistry registry, final int ranks) {
+        for (final SmppError error : TRACKED_ERRORS) {
+            for (final HeavyHitterDimension dimension : HeavyHitterDimension.values()) {
+                for (int rank = 1; rank <= ranks; rank++) {
+                    final var index = rank - 1;
+                    Gauge.builder(HEAVY_HITTERS, this, tracker -> {
+                        final var top = tracker.top(error, dimension, index + 1);
+                        return (top.size() > index) ? top.get(index).count() : 0;
+                    })
+                            .tag("error", error.code)
+                            .tag("dimension", dimension.tag)
+                            .tag("rank", String.valueOf(rank))
+                            .register(registry);
+                }
+            }
+        }
+    }
+
+    private long currentEpoch() {
+        return this.clock.millis() / this.bucketMillis;
+    }
+
+    /**
+     * Ring of sketches, the sketch of an expired bucket is reused for the current one
+     */
+    private static final class SlidingWindow {
+
+        private final SpaceSaving[] sketches;
+        private final long[] epochs;
+
+        SlidingWindow(final int capacity, final int buckets) {
+            this.sketches = new SpaceSaving[buckets];
+            this.epochs = new long[buckets];
+            for (int i = 0; i < buckets; i++) {
+                this.sketches[i] = new SpaceSaving(capacity);
+                this.epochs[i] = -1;
+            }
+        }
+
+        // the offer has to happen under the lock as well, it could otherwise land in a sketch cleared for a newer epoch
+        synchronized void offer(final String key, final long epoch) {
+            final var index = (int) (epoch % this.sketches.length);
+            if (this.epochs[index] != epoch) {
+                this.sketches[index].clear();
+                this.epochs[index] = epoch;
+            }
+            this.sketches[index].offer(key);
+        }
+
+        List<HeavyHitter> top(final long epoch, final int limit) {
+            final Map<String, long[]> totals = new HashMap<>();
+            synchronized (this) {
+                for (int i = 0; i < this.sketches.length; i++) {
+                    if ((this.epochs[i] >= 0) && ((epoch - this.epochs[i]) < this.sketches.length)) {
+                        this.sketches[i].addTo(totals);
+                    }
+                }
+            }
+            return SpaceSaving.top(totals, limit);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package authentication.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving sketch (Metwally et al.) counting the most frequent keys of a stream with a fixed number of counters.
+ * A key seen for the first time while every counter is taken replaces the key with the lowest count and inherits
+ * that count as its error.
+ *
+ * The counters are kept in the Stream-Summary structure of the paper: a list of buckets in ascending count order,
+ * each holding the counters of its count, so both an increment and finding the lowest count take constant time.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    // bucket of the lowest count, null while there are no counters
+    private Bucket smallest;
+
+    public SpaceSaving(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Count one occurrence of the key
+     *
+     * @param key - e.g. system_id or IP
+     */
+    public synchronized void offer(final String key) {
+        final var counter = this.counters.get(key);
+        if (counter != null) {
+            this.increment(counter);
+            return;
+        }
+
+        if (this.counters.size() < this.capacity) {
+            final var added = new Counter(key, 0);
+            if ((this.smallest == null) || (this.smallest.count != 1)) {
+                final var bucket = new Bucket(1);
+                bucket.next = this.smallest;
+                if (this.smallest != null) {
+                    this.smallest.previous = bucket;
+                }
+                this.smallest = bucket;
+            }
+            this.smallest.add(added);
+            this.counters.put(key, added);
+            return;
+        }
+
+        final var minimum = this.smallest.first;
+        this.counters.remove(minimum.key);
+        minimum.key = key;
+        minimum.error = this.smallest.count;
+        this.counters.put(key, minimum);
+        this.increment(minimum);
+    }
+
+    /**
+     * Add the counters of this sketch to the given totals
+     *
+     * @param totals - key to {count, error}
+     */
+    synchronized void addTo(final Map<String, long[]> totals) {
+        this.counters.forEach((key, counter) -> {
+            final var total = totals.computeIfAbsent(key, ignored -> new long[2]);
+            total[0] += counter.bucket.count;
+            total[1] += counter.error;
+        });
+    }
+
+    /**
+     * Remove every counter
+     */
+    public synchronized void clear() {
+        this.counters.clear();
+        this.smallest = null;
+    }
+
+    /**
+     * Move the counter to the bucket of the next count, creating it when the next bucket has a higher count
+     */
+    private void increment(final Counter counter) {
+        final var bucket = counter.bucket;
+        var next = bucket.next;
+        if ((next == null) || (next.count != (bucket.count + 1))) {
+            next = new Bucket(bucket.count + 1);
+            next.previous = bucket;
+            next.next = bucket.next;
+            if (bucket.next != null) {
+                bucket.next.previous = next;
+            }
+            bucket.next = next;
+        }
+        bucket.remove(counter);
+        if (bucket.first == null) {
+            this.unlink(bucket);
+        }
+        next.add(counter);
+    }
+
+    private void unlink(final Bucket bucket) {
+        if (bucket.previous != null) {
+            bucket.previous.next = bucket.next;
+        } else {
+            this.smallest = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    /**
+     * Get the keys with the highest counts
+     *
+     * @param limit - maximum number of keys
+     *
+     * @return heavy hitters sorted by descending count
+     */
+    public List<HeavyHitter> top(final int limit) {
+        final Map<String, long[]> totals = new HashMap<>();
+        this.addTo(totals);
+        return top(totals, limit);
+    }
+
+    static List<HeavyHitter> top(final Map<String, long[]> totals, final int limit) {
+        final List<HeavyHitter> heavyHitters = new ArrayList<>(Math.min(limit, totals.size()));
+        totals.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(limit)
+                .forEach(entry -> heavyHitters.add(ImmutableHeavyHitter.builder()
+                        .key(entry.getKey())
+                        .count(entry.getValue()[0])
+                        .error(entry.getValue()[1])
+                        .build()));
+        return heavyHitters;
+    }
+
+    /**
+     * Counters of the same count, doubly linked to the buckets of the neighbouring counts
+     */
+    private static final class Bucket {
+        private final long count;
+        private Bucket previous;
+        private Bucket next;
+        private Counter first;
+
+        Bucket(final long count) {
+            this.count = count;
+        }
+
+        void add(final Counter counter) {
+            counter.bucket = this;
+            counter.previous = null;
+            counter.next = this.first;
+            if (this.first != null) {
+                this.first.previous = counter;
+            }
+            this.first = counter;
+        }
+
+        void remove(final Counter counter) {
+            if (counter.previous != null) {
+                counter.previous.next = counter.next;
+            } else {
+                this.first = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.previous = counter.previous;
+            }
+        }
+    }
+
+    private static final class Counter {
+        private String key;
+        private long error;
+        private Bucket bucket;
+        private Counter previous;
+        private Counter next;
+
+        Counter(final String key, final long error) {
+            this.key = key;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package authentication.migration;
+
+import protocol.configuration.ImmutableIdentityConfiguration;
+import protocol.configuration.ImmutableIdentityDynamoDBConfiguration;
+import authentication.cache.PackedIdentity;
+import authentication.utils.DynamoDBUtils;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.Table;
+import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
+import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Populates the identity_bin attribute of every identity item from its text attributes, optionally removing the text
+ * attributes to shrink the items. The update is conditional on the text attributes, an item changed during the
+ * migration is reported and can be migrated by running the migration again. The items per second can be limited, so
+ * the scan and the writes do not take the capacity the proxy needs.
+ *
+ * Run with {@code java -cp <classpath> authentication.migration.IdentityBinaryMigration <tableName> <region>
+ * [endpoint] [--remove-text-attributes] [--items-per-second=N]}, the endpoint is only needed for a local DynamoDB.
+ */
+@Slf4j
+public class IdentityBinaryMigration {
+
+    private static final String SYSTEM_ID_ATTRIBUTE = "system_id";
+    private static final String PASSWORD_HASH_ATTRIBUTE = "password_hash";
+    private static final String CUSTOMER_ID_ATTRIBUTE = "customer_id";
+    private static final String IP_ALLOW_LIST_ATTRIBUTE = "ip_allow_list";
+    private static final String IDENTITY_BIN_ATTRIBUTE = "identity_bin";
+    private static final String REMOVE_TEXT_ATTRIBUTES = "--remove-text-attributes";
+    private static final String ITEMS_PER_SECOND = "--items-per-second=";
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    public enum Outcome {
+        // identity_bin has been written
+        MIGRATED,
+        // identity_bin is up to date or the item has no text identity
+        SKIPPED,
+        // the text attributes changed during the migration
+        CHANGED,
+        FAILED
+    }
+
+    private final Table table;
+    private final boolean removeTextAttributes;
+    // 0 for no limit
+    private final int itemsPerSecond;
+
+    public IdentityBinaryMigration(final Table table, final boolean removeTextAttributes, final int itemsPerSecond) {
+        if (itemsPerSecond < 0) {
+            throw new IllegalArgumentException("Items per second must not be negative: " + itemsPerSecond);
+        }
+        this.table = table;
+        this.removeTextAttributes = removeTextAttributes;
+        this.itemsPerSecond = itemsPerSecond;
+    }
+
+    public static void main(final String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: IdentityBinaryMigration <tableName> <region> [endpoint] ["
+                    + REMOVE_TEXT_ATTRIBUTES + "] [" + ITEMS_PER_SECOND + "N]");
+            System.exit(1);
+        }
+        final var removeTextAttributes = Arrays.asList(args).contains(REMOVE_TEXT_ATTRIBUTES);
+        final var itemsPerSecond = Arrays.stream(args)
+                .filter(arg -> arg.startsWith(ITEMS_PER_SECOND))
+                .map(arg -> Integer.parseInt(arg.substring(ITEMS_PER_SECOND.length())))
+                .findFirst()
+                .orElse(0);
+        final var endpoint = ((args.length > 2) && !args[2].startsWith("--")) ? args[2] : null;
+        final var configuration = ImmutableIdentityConfiguration.builder()
+                .dynamoDBConfiguration(ImmutableIdentityDynamoDBConfiguration.builder()
+                        .tableName(args[0])
+                        .region(args[1])
+                        .endpoint((endpoint != null) ? endpoint : "")
+                        .local(endpoint != null)
+                        .retries(3)
+                        .build())
+                .build();
+
+        final var table = DynamoDBUtils.createDynamoDB(configuration).getTable(args[0]);
+        final var outcomes = new IdentityBinaryMigration(table, removeTextAttributes, itemsPerSecond).run();
+        System.out.println("Identity migration finished: " + outcomes);
+    }
+
+    /**
+     * Scan the table and migrate every item
+     *
+     * @return number of items per outcome
+     */
+    public Map<Outcome, Long> run() {
+        final Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+        final var scanSpec = new ScanSpec();
+        if (this.itemsPerSecond > 0) {
+            // pages are read as the items are consumed, smaller pages keep the read bursts short
+            scanSpec.withMaxPageSize(Math.min(this.itemsPerSecond, MAX_PAGE_SIZE));
+        }
+        final var start = System.nanoTime();
+        long items = 0;
+        for (final Item item : this.table.scan(scanSpec)) {
+            this.pace(start, items++);
+            outcomes.merge(this.migrate(item), 1L, Long::sum);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Wait until the item is due at the configured items per second
+     */
+    private void pace(final long start, final long item) {
+        if (this.itemsPerSecond == 0) {
+            return;
+        }
+        final var waitNanos = start + (item * TimeUnit.SECONDS.toNanos(1) / this.itemsPerSecond) - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted identity migration", e);
+            }
+        }
+    }
+
+    /**
+     * Write the identity_bin attribute of the item
+     *
+     * @param item - identity item
+     *
+     * @return the outcome of the migration
+     */
+    Outcome migrate(final Item item) {
+        final var systemId = item.getString(SYSTEM_ID_ATTRIBUTE);
+        final var customerId = item.getString(CUSTOMER_ID_ATTRIBUTE);
+        final var passwordHash = item.getString(PASSWORD_HASH_ATTRIBUTE);
+        final var ipAllowList = item.getString(IP_ALLOW_LIST_ATTRIBUTE);
+        if ((customerId == null) || (passwordHash == null)) {
+            return Outcome.SKIPPED;
+        }
+
+        final var identityBin =
+                new PackedIdentity(systemId, PackedIdentity.pack(customerId, passwordHash, ipAllowList)).toAttribute();
+        if (!this.removeTextAttributes && Arrays.equals(identityBin, item.getBinary(IDENTITY_BIN_ATTRIBUTE))) {
+            return Outcome.SKIPPED;
+        }
+
+        final var values = new ValueMap().withBinary(":bin", identityBin)
+                .withString(":customer", customerId)
+                .withString(":hash", passwordHash);
+        var condition = CUSTOMER_ID_ATTRIBUTE + " = :customer and " + PASSWORD_HASH_ATTRIBUTE + " = :hash and ";
+        if (ipAllowList != null) {
+            condition += IP_ALLOW_LIST_ATTRIBUTE + " = :ips";
+            values.withString(":ips", ipAllowList);
+        } else {
+            condition += "attribute_not_exists(" + IP_ALLOW_LIST_ATTRIBUTE + ")";
+        }
+        var update = "set " + IDENTITY_BIN_ATTRIBUTE + " = :bin";
+        if (this.removeTextAttributes) {
+            update += " remove " + String.join(", ",
+                    CUSTOMER_ID_ATTRIBUTE, PASSWORD_HASH_ATTRIBUTE, IP_ALLOW_LIST_ATTRIBUTE);
+        }
+
+        try {
+            this.table.updateItem(new UpdateItemSpec().withPrimaryKey(SYSTEM_ID_ATTRIBUTE, systemId)
+                    .withUpdateExpression(update)
+                    .withConditionExpression(condition)
+                    .withValueMap(values));
+            return Outcome.MIGRATED;
+        } catch (final ConditionalCheckFailedException e) {
+            log.info("Identity {} changed during the migration", systemId);
+            return Outcome.CHANGED;
+        } catch (final RuntimeException e) {
+            log.warn("Unable to migrate identity {}", systemId, e);
+            return Outcome.FAILED;
+        }
+    }
+}
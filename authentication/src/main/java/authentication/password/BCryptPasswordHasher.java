@@ -0,0 +1,68 @@
+package authentication.password;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * {@link PasswordHasher} for jBCrypt hashes in the format {@code $2a$<cost>$<salt+hash>}
+ */
+public class BCryptPasswordHasher implements PasswordHasher {
+
+    private static final String PREFIX = "$2";
+
+    private final int logRounds;
+
+    public BCryptPasswordHasher(final int logRounds) {
+        this.logRounds = logRounds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String hash(final String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(this.logRounds));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final String passwordHash) {
+        return passwordHash.startsWith(PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean matches(final String password, final String passwordHash) {
+        return BCrypt.checkpw(password, passwordHash);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasSameParameters(final String passwordHash) {
+        return logRounds(passwordHash) == this.logRounds;
+    }
+
+    /**
+     * Get the cost factor of a BCrypt hash
+     *
+     * @param passwordHash - BCrypt hash
+     *
+     * @return the log rounds or -1 if the hash is malformed
+     */
+    static int logRounds(final String passwordHash) {
+        final var parts = passwordHash.split("\\$");
+        if (parts.length < 4) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(parts[2]);
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+}
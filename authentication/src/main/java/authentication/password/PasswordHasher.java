@@ -0,0 +1,41 @@
+package authentication.password;
+
+public interface PasswordHasher {
+
+    /**
+     * Hash the given password with the parameters of this hasher
+     *
+     * @param password - plain text password
+     *
+     * @return the encoded hash
+     */
+    String hash(final String password);
+
+    /**
+     * Check whether the given hash was produced by this algorithm
+     *
+     * @param passwordHash - stored hash
+     *
+     * @return whether this hasher is able to verify the hash
+     */
+    boolean supports(final String passwordHash);
+
+    /**
+     * Check whether the given password matches the stored hash
+     *
+     * @param password     - plain text password
+     * @param passwordHash - stored hash
+     *
+     * @return whether the password matches
+     */
+    boolean matches(final String password, final String passwordHash);
+
+    /**
+     * Check whether the stored hash was created with the parameters of this hasher
+     *
+     * @param passwordHash - stored hash
+     *
+     * @return whether the hash uses the same parameters
+     */
+    boolean hasSameParameters(final String passwordHash);
+}
@@ -0,0 +1,88 @@
+package authentication.password;
+
+import protocol.configuration.IdentityPasswordHashConfiguration;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Verifies stored password hashes of every supported algorithm and decides whether a hash should be
+ * re-created with the configured target algorithm and cost
+ */
+public class PasswordHashing {
+
+    private static final int DEFAULT_BCRYPT_LOG_ROUNDS = 10;
+    private static final int DEFAULT_PBKDF2_ITERATIONS = 310_000;
+
+    private final List<PasswordHasher> verifiers;
+    private final Optional<PasswordHasher> target;
+
+    PasswordHashing(final List<PasswordHasher> verifiers, final Optional<PasswordHasher> target) {
+        this.verifiers = verifiers;
+        this.target = target;
+    }
+
+    /**
+     * Create the password hashing based on configuration
+     *
+     * @param configuration - optional target hash configuration, without it no hash is rehashed
+     *
+     * @return the password hashing
+     */
+    public static PasswordHashing fromConfiguration(final Optional<IdentityPasswordHashConfiguration> configuration) {
+        final var verifiers = List.of(new BCryptPasswordHasher(DEFAULT_BCRYPT_LOG_ROUNDS),
+                new Pbkdf2PasswordHasher(DEFAULT_PBKDF2_ITERATIONS));
+
+        return new PasswordHashing(verifiers, configuration.map(PasswordHashing::createHasher));
+    }
+
+    private static PasswordHasher createHasher(final IdentityPasswordHashConfiguration configuration) {
+        switch (configuration.algorithm()) {
+            case PBKDF2:
+                return new Pbkdf2PasswordHasher(configuration.cost());
+            case BCRYPT:
+            default:
+                return new BCryptPasswordHasher(configuration.cost());
+        }
+    }
+
+    /**
+     * Check whether the given password matches the stored hash of any supported algorithm
+     *
+     * @param password     - plain text password
+     * @param passwordHash - stored hash
+     *
+     * @return whether the password matches
+     */
+    public boolean matches(final String password, final String passwordHash) {
+        return this.verifiers.stream()
+                .filter(verifier -> verifier.supports(passwordHash))
+                .findFirst()
+                .map(verifier -> verifier.matches(password, passwordHash))
+                .orElse(false);
+    }
+
+    /**
+     * Check whether the stored hash differs from the configured algorithm or cost
+     *
+     * @param passwordHash - stored hash
+     *
+     * @return whether the hash should be replaced
+     */
+    public boolean needsRehash(final String passwordHash) {
+        return this.target.map(hasher -> !hasher.supports(passwordHash) || !hasher.hasSameParameters(passwordHash))
+                .orElse(false);
+    }
+
+    /**
+     * Hash the password with the configured target algorithm and cost
+     *
+     * @param password - plain text password
+     *
+     * @return the new hash
+     */
+    public String hash(final String password) {
+        return this.target.orElseThrow(() -> new IllegalStateException("no password hash configuration"))
+                .hash(password);
+    }
+}
@@ -0,0 +1,91 @@
+package authentication.password;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * {@link PasswordHasher} for PBKDF2 hashes in the format {@code $pbkdf2-sha256$<iterations>$<salt>$<hash>}
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    public Pbkdf2PasswordHasher(final int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String hash(final String password) {
+        final var salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        final var hash = derive(password, salt, this.iterations, HASH_LENGTH);
+
+        return PREFIX + this.iterations + '$' + encode(salt) + '$' + encode(hash);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final String passwordHash) {
+        return passwordHash.startsWith(PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean matches(final String password, final String passwordHash) {
+        final var parts = passwordHash.split("\\$");
+        if (parts.length != 5) {
+            return false;
+        }
+        try {
+            final var iterations = Integer.parseInt(parts[2]);
+            final var salt = Base64.getDecoder().decode(parts[3]);
+            final var expected = Base64.getDecoder().decode(parts[4]);
+            final var actual = derive(password, salt, iterations, expected.length);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasSameParameters(final String passwordHash) {
+        final var parts = passwordHash.split("\\$");
+        return (parts.length == 5) && parts[2].equals(String.valueOf(this.iterations));
+    }
+
+    private static byte[] derive(final String password, final byte[] salt, final int iterations, final int length) {
+        final var spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * Byte.SIZE);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String encode(final byte[] bytes) {
+        return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
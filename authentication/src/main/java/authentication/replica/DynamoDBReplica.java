@@ -0,0 +1,110 @@
+package authentication.replica;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.dynamodbv2.document.DynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Table;
+
+/**
+ * Replica of the identity table with its average latency and health, as seen by this node
+ */
+public class DynamoDBReplica {
+
+    private final String name;
+    private final DynamoDB dynamoDB;
+    private final String tableName;
+    private final Table table;
+    private final int priority;
+    private final double alpha;
+    // one permit per connection of the client's pool, so waiting requests queue here instead of in the pool
+    private final Semaphore connections;
+
+    // guarded by this, NaN until the first request
+    private double latencyNanos = Double.NaN;
+    private volatile long unhealthyUntilNanos;
+    private volatile boolean unhealthy;
+
+    public DynamoDBReplica(final String name,
+            final DynamoDB dynamoDB,
+            final String tableName,
+            final int priority,
+            final double alpha,
+            final int maxConnections) {
+        this.name = name;
+        this.dynamoDB = dynamoDB;
+        this.tableName = tableName;
+        this.table = dynamoDB.getTable(tableName);
+        this.priority = priority;
+        this.alpha = alpha;
+        this.connections = new Semaphore(maxConnections);
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public DynamoDB dynamoDB() {
+        return this.dynamoDB;
+    }
+
+    public String tableName() {
+        return this.tableName;
+    }
+
+    public Table table() {
+        return this.table;
+    }
+
+    public int priority() {
+        return this.priority;
+    }
+
+    /**
+     * Exponentially weighted moving average of the request latency, NaN before the first request
+     */
+    public synchronized double latencyNanos() {
+        return this.latencyNanos;
+    }
+
+    synchronized void recordLatency(final long nanos) {
+        this.latencyNanos = Double.isNaN(this.latencyNanos)
+                ? nanos
+                : ((this.alpha * nanos) + ((1 - this.alpha) * this.latencyNanos));
+    }
+
+    /**
+     * Take one of the connections of the replica
+     *
+     * @return whether a connection became free within the timeout
+     */
+    boolean acquireConnection(final long timeoutNanos) throws InterruptedException {
+        return this.connections.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void releaseConnection() {
+        this.connections.release();
+    }
+
+    void markUnhealthy(final long untilNanos) {
+        this.unhealthyUntilNanos = untilNanos;
+        this.unhealthy = true;
+    }
+
+    void markHealthy() {
+        this.unhealthy = false;
+    }
+
+    boolean isHealthy(final long nowNanos) {
+        return !this.unhealthy || ((nowNanos - this.unhealthyUntilNanos) >= 0);
+    }
+
+    long unhealthyUntilNanos() {
+        return this.unhealthyUntilNanos;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,258 @@
+package authentication.replica;
+
+import protocol.configuration.IdentityConfiguration;
+import protocol.configuration.IdentityDynamoDBReplicaConfiguration;
+import authentication.utils.DynamoDBUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.amazonaws.retry.RetryUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routes DynamoDB requests to the fastest healthy replica of the lowest priority and fails over to the next replica
+ * when a replica does not answer. A failed replica is skipped until its unhealthy period has passed and is only used
+ * before that when every other replica failed as well.
+ *
+ * Requests in flight per replica are capped at the connections of its client, so with one virtual thread per
+ * authentication the surplus waits for a permit instead of timing out in the connection pool of the client.
+ *
+ * Conditional writes only go to the home replica, the first one: replicas of a global table resolve concurrent
+ * writes by last writer wins, so a condition checked in another region does not protect against a write made
+ * in the home region.
+ */
+@Slf4j
+public class ReplicaRouter {
+
+    private static final String REPLICA_LATENCY = "authentication.dynamodb.replica.latency";
+    private static final String REPLICA_FAILURES = "authentication.dynamodb.replica.failures";
+    private static final String CONNECTION_WAIT_TIMEOUTS = "authentication.dynamodb.replica.connection_wait_timeouts";
+    private static final String REPLICA = "replica";
+
+    private static final Comparator<DynamoDBReplica> PREFERENCE = Comparator.comparingInt(DynamoDBReplica::priority)
+            // replicas without a latency yet are tried first, so every replica gets measured
+            .thenComparingDouble(replica -> Double.isNaN(replica.latencyNanos()) ? 0 : replica.latencyNanos());
+
+    private final List<DynamoDBReplica> replicas;
+    private final long unhealthyNanos;
+    private final double probeRatio;
+    private final long connectionWaitNanos;
+    private final LongSupplier nanoTime;
+
+    ReplicaRouter(final List<DynamoDBReplica> replicas,
+            final Duration unhealthyDuration,
+            final double probeRatio,
+            final Duration connectionWait,
+            final LongSupplier nanoTime) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one DynamoDB replica is required");
+        }
+        if (replicas.stream().map(DynamoDBReplica::name).distinct().count() != replicas.size()) {
+            throw new IllegalArgumentException("DynamoDB replicas must be distinct: " + replicas);
+        }
+        this.replicas = List.copyOf(replicas);
+        this.unhealthyNanos = unhealthyDuration.toNanos();
+        this.probeRatio = probeRatio;
+        this.connectionWaitNanos = connectionWait.toNanos();
+        this.nanoTime = nanoTime;
+        this.replicas.forEach(replica ->
+                Gauge.builder(REPLICA_LATENCY, replica, measured -> measured.latencyNanos() / 1e6)
+                        .tag(REPLICA, replica.name())
+                        .baseUnit("milliseconds")
+                        .register(Metrics.globalRegistry));
+    }
+
+    /**
+     * Create the router of the configured replicas, the configured table is the only replica without them
+     *
+     * @param configuration - identity configuration
+     */
+    public static ReplicaRouter fromConfiguration(final IdentityConfiguration configuration) {
+        final var dynamoDBConfiguration = configuration.dynamoDBConfiguration();
+        final var replicaConfigurations = dynamoDBConfiguration.replicas().isEmpty()
+                ? List.of(DynamoDBUtils.primaryReplica(configuration))
+                : dynamoDBConfiguration.replicas();
+
+        final var clientConfiguration = DynamoDBUtils.getClientConfiguration(configuration);
+        final var replicas = replicaConfigurations.stream()
+                .map(replica -> new DynamoDBReplica(name(replica),
+                        DynamoDBUtils.createDynamoDB(replica, clientConfiguration),
+                        replica.tableName(),
+                        replica.priority(),
+                        dynamoDBConfiguration.latencyEwmaAlpha(),
+                        dynamoDBConfiguration.maxConnections()))
+                .collect(Collectors.toList());
+        // a request waits for a connection at most as long as it may take including its retries
+        return new ReplicaRouter(replicas, Duration.ofSeconds(dynamoDBConfiguration.unhealthySeconds()),
+                dynamoDBConfiguration.probeRatio(),
+                Duration.ofMillis(dynamoDBConfiguration.clientExecutionTimeoutMillis()), System::nanoTime);
+    }
+
+    public List<DynamoDBReplica> replicas() {
+        return this.replicas;
+    }
+
+    /**
+     * The replica all writes go to
+     */
+    public DynamoDBReplica home() {
+        return this.replicas.get(0);
+    }
+
+    /**
+     * Run the write on the home replica, without failing over to another one
+     *
+     * @param write - the DynamoDB write request
+     *
+     * @return the result of the request
+     */
+    public <T> T executeOnHome(final Function<DynamoDBReplica, T> write) {
+        return this.executeOn(this.home(), write);
+    }
+
+    /**
+     * Run the request on the preferred replica, failing over to the next replica when a replica does not answer
+     *
+     * @param request - the DynamoDB request
+     *
+     * @return the result of the request
+     */
+    public <T> T execute(final Function<DynamoDBReplica, T> request) {
+        RuntimeException failure = null;
+        for (final DynamoDBReplica replica : this.candidates()) {
+            try {
+                return this.executeOn(replica, request);
+            } catch (final RuntimeException e) {
+                if (!isReplicaFailure(e)) {
+                    throw e;
+                }
+                log.warn("DynamoDB replica {} failed: {}", replica, e.toString());
+                if (failure != null) {
+                    e.addSuppressed(failure);
+                }
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Run the request on the given replica once one of its connections is free, recording its latency and health
+     *
+     * @param replica - one of the {@link #replicas()}
+     * @param request - the DynamoDB request
+     *
+     * @return the result of the request
+     *
+     * @throws IllegalStateException when no connection of the replica became free in time, which says nothing about
+     *                               the health of the replica
+     */
+    public <T> T executeOn(final DynamoDBReplica replica, final Function<DynamoDBReplica, T> request) {
+        try {
+            if (!replica.acquireConnection(this.connectionWaitNanos)) {
+                Counter.builder(CONNECTION_WAIT_TIMEOUTS).tag(REPLICA, replica.name())
+                        .register(Metrics.globalRegistry).increment();
+                throw new IllegalStateException("No connection to DynamoDB replica " + replica + " became free");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connection to " + replica, e);
+        }
+        try {
+            return this.measure(replica, request);
+        } finally {
+            replica.releaseConnection();
+        }
+    }
+
+    private <T> T measure(final DynamoDBReplica replica, final Function<DynamoDBReplica, T> request) {
+        final var start = this.nanoTime.getAsLong();
+        try {
+            final var result = request.apply(replica);
+            replica.recordLatency(this.nanoTime.getAsLong() - start);
+            replica.markHealthy();
+            return result;
+        } catch (final RuntimeException e) {
+            if (isReplicaFailure(e)) {
+                replica.markUnhealthy(this.nanoTime.getAsLong() + this.unhealthyNanos);
+                Counter.builder(REPLICA_FAILURES).tag(REPLICA, replica.name()).register(Metrics.globalRegistry)
+                        .increment();
+            } else {
+                // the replica answered, e.g. with a failed condition
+                replica.recordLatency(this.nanoTime.getAsLong() - start);
+                replica.markHealthy();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replicas in the order they are tried: the healthy ones by priority and latency, then the unhealthy ones by the
+     * end of their unhealthy period
+     */
+    List<DynamoDBReplica> candidates() {
+        final var now = this.nanoTime.getAsLong();
+        final List<DynamoDBReplica> healthy = new ArrayList<>(this.replicas.size());
+        final List<DynamoDBReplica> unhealthy = new ArrayList<>();
+        for (final DynamoDBReplica replica : this.replicas) {
+            (replica.isHealthy(now) ? healthy : unhealthy).add(replica);
+        }
+        healthy.sort(PREFERENCE);
+        this.probe(healthy);
+        unhealthy.sort(Comparator.comparingLong(replica -> replica.unhealthyUntilNanos() - now));
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    /**
+     * Occasionally move another replica of the same priority to the front, otherwise the latency of a replica that
+     * has become faster would never be measured again
+     */
+    private void probe(final List<DynamoDBReplica> healthy) {
+        if ((healthy.size() < 2) || (ThreadLocalRandom.current().nextDouble() >= this.probeRatio)) {
+            return;
+        }
+        final var priority = healthy.get(0).priority();
+        int samePriority = 1;
+        while ((samePriority < healthy.size()) && (healthy.get(samePriority).priority() == priority)) {
+            samePriority++;
+        }
+        if (samePriority > 1) {
+            final var probed = healthy.remove(1 + ThreadLocalRandom.current().nextInt(samePriority - 1));
+            healthy.add(0, probed);
+        }
+    }
+
+    /**
+     * Name of the replica in logs and metric tags, a local DynamoDB is told apart by its endpoint
+     */
+    static String name(final IdentityDynamoDBReplicaConfiguration replica) {
+        return (replica.local() ? replica.endpoint() : replica.region()) + '/' + replica.tableName();
+    }
+
+    /**
+     * Whether the replica did not answer: connection failures, server errors and throttling. Client errors such as
+     * a failed condition are answers.
+     */
+    static boolean isReplicaFailure(final RuntimeException e) {
+        if (e instanceof AmazonServiceException) {
+            final var serviceException = (AmazonServiceException) e;
+            return (serviceException.getErrorType() == ErrorType.Service)
+                    || RetryUtils.isThrottlingException(serviceException);
+        }
+        return e instanceof AmazonClientException;
+    }
+}
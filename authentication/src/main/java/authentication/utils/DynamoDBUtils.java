@@ -1,22 +1,70 @@
 package authentication.utils;
 
 import protocol.configuration.IdentityConfiguration;
+import protocol.configuration.IdentityDynamoDBReplicaConfiguration;
+import protocol.configuration.ImmutableIdentityDynamoDBReplicaConfiguration;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
 import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 
 public final class DynamoDBUtils {
 
     private DynamoDBUtils() {
     }
 
+    /**
+     * Create the DynamoDB client based on configuration
+     */
+    public static DynamoDB createDynamoDB(final IdentityConfiguration configuration) {
+        return createDynamoDB(primaryReplica(configuration), getClientConfiguration(configuration));
+    }
+
+    /**
+     * The table of the configuration as replica
+     */
+    public static IdentityDynamoDBReplicaConfiguration primaryReplica(final IdentityConfiguration configuration) {
+        return ImmutableIdentityDynamoDBReplicaConfiguration.builder()
+                .local(isLocal(configuration))
+                .endpoint(configuration.dynamoDBConfiguration().endpoint())
+                .region(getRegion(configuration))
+                .tableName(configuration.dynamoDBConfiguration().tableName())
+                .build();
+    }
+
+    /**
+     * Create the DynamoDB client of a replica
+     */
+    public static DynamoDB createDynamoDB(final IdentityDynamoDBReplicaConfiguration replica,
+            final ClientConfiguration clientConfiguration) {
+        final var clientBuilder = AmazonDynamoDBClientBuilder.standard().withClientConfiguration(clientConfiguration);
+
+        if (replica.local()) {
+            clientBuilder.setEndpointConfiguration(new EndpointConfiguration(replica.endpoint(), replica.region()));
+        } else {
+            clientBuilder.setRegion(replica.region());
+        }
+        return new DynamoDB(clientBuilder.build());
+    }
+
     /**
      * Build ClientConfiguration based on configuration settings.
      */
     public static ClientConfiguration getClientConfiguration(final IdentityConfiguration configuration) {
-        return new ClientConfiguration().withRetryPolicy(PredefinedRetryPolicies.getDynamoDBDefaultRetryPolicyWithCustomMaxRetries(
-                configuration.dynamoDBConfiguration().retries()));
+        final var dynamoDBConfiguration = configuration.dynamoDBConfiguration();
+        // with replicas, a failed request is retried on the next replica rather than on the same one
+        final var retries = dynamoDBConfiguration.replicas().isEmpty()
+                ? dynamoDBConfiguration.retries()
+                : Math.min(dynamoDBConfiguration.retries(), dynamoDBConfiguration.replicaRetries());
+        return new ClientConfiguration()
+                .withRetryPolicy(PredefinedRetryPolicies.getDynamoDBDefaultRetryPolicyWithCustomMaxRetries(retries))
+                .withMaxConnections(dynamoDBConfiguration.maxConnections())
+                .withConnectionTimeout(dynamoDBConfiguration.connectionTimeoutMillis())
+                .withSocketTimeout(dynamoDBConfiguration.socketTimeoutMillis())
+                .withRequestTimeout(dynamoDBConfiguration.requestTimeoutMillis())
+                .withClientExecutionTimeout(dynamoDBConfiguration.clientExecutionTimeoutMillis());
     }
 
     /**
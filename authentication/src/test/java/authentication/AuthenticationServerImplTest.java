@@ -4,18 +4,42 @@ import protocol.AuthenticationRequest;
 import protocol.ImmutableAuthenticationRequest;
 import protocol.ImmutableAuthenticationResponse;
 import protocol.ImmutableUnsuccessfulResponse;
+import protocol.SmppError;
 import protocol.configuration.IdentityConfiguration;
 import protocol.configuration.ImmutableIdentityConfiguration;
 import protocol.configuration.ImmutableIdentityDynamoDBConfiguration;
-
+import protocol.configuration.ImmutableIdentityPasswordHashConfiguration;
+import protocol.configuration.ImmutableLatencyEqualizationConfiguration;
+import protocol.configuration.PasswordHashAlgorithm;
+import authentication.cache.OffHeapIdentityCache;
+import authentication.cache.OnHeapIdentityCache;
+import authentication.cache.PackedIdentity;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
 import io.vavr.control.Either;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Test;
 import org.mindrot.jbcrypt.BCrypt;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static protocol.SmppError.SMPP_3001;
@@ -24,6 +48,7 @@ import static protocol.SmppError.SMPP_3003;
 import static protocol.SmppError.SMPP_3004;
 import static protocol.SmppError.SMPP_3005;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
@@ -193,5 +218,323 @@ public class AuthenticationServerImplTest {
 
         assertThat(nullSystemIdIdentity, is(Optional.empty()));
     }
-}
 
+    @Test
+    public void testRehashOnDifferentCost() {
+        final var rehashingServer = Mockito.spy(AuthenticationServerImpl.builder()
+                .config(ImmutableIdentityConfiguration.copyOf(this.identityConfiguration)
+                        .withPasswordHashConfiguration(ImmutableIdentityPasswordHashConfiguration.builder()
+                                .algorithm(PasswordHashAlgorithm.BCRYPT)
+                                .cost(4)
+                                .build()))
+                .build());
+        Mockito.doReturn(Either.right(this.identity))
+                .when(rehashingServer)
+                .getCredentials(this.authenticationRequest.systemId());
+        Mockito.doNothing().when(rehashingServer).rehashPassword(any(), anyString());
+
+        final var authentication = rehashingServer.authenticate(this.authenticationRequest);
+
+        assertThat(authentication.isRight(), is(true));
+        verify(rehashingServer, times(1)).rehashPassword(this.identity, this.authenticationRequest.password());
+    }
+
+    @Test
+    public void testNoRehashWithoutConfiguration() {
+        Mockito.doReturn(Either.right(this.identity))
+                .when(this.authenticationServer)
+                .getCredentials(this.authenticationRequest.systemId());
+
+        this.authenticationServer.authenticate(this.authenticationRequest);
+
+        verify(this.authenticationServer, never()).rehashPassword(any(), anyString());
+    }
+
+    @Test
+    public void testNoRehashOnIncorrectPassword() {
+        Mockito.doReturn(Either.right(this.identity))
+                .when(this.authenticationServer)
+                .getCredentials(this.incorrectPasswordRequest.systemId());
+
+        this.authenticationServer.authenticate(this.incorrectPasswordRequest);
+
+        verify(this.authenticationServer, never()).rehashPassword(any(), anyString());
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Mockito.doReturn(Either.right(this.identity))
+                .when(this.authenticationServer)
+                .getCredentials(this.incorrectPasswordRequest.systemId());
+
+        final var file = Files.createTempFile("authentication", ".jfr");
+        try (final var recording = new Recording()) {
+            recording.enable("smpp.authentication.IdentityFetch").withThreshold(Duration.ZERO);
+            recording.enable("smpp.authentication.IpCheck").withThreshold(Duration.ZERO);
+            recording.enable("smpp.authentication.PasswordCheck").withThreshold(Duration.ZERO);
+            recording.start();
+            this.authenticationServer.authenticate(this.incorrectPasswordRequest);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final var outcomes = RecordingFile.readAllEvents(file)
+                .stream()
+                .filter(event -> event.getEventType().getName().startsWith("smpp.authentication."))
+                .filter(event -> "system_id".equals(event.getString("systemId")))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .map(event -> event.getString("outcome"))
+                .collect(Collectors.toList());
+        Files.delete(file);
+
+        assertThat(outcomes, contains("OK", "OK", SMPP_3003.code));
+    }
+
+    @Test
+    public void testCachedCredentials() {
+        final var identityCache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+        final var cachingServer = Mockito.spy(AuthenticationServerImpl.builder()
+                .config(this.identityConfiguration)
+                .identityCache(identityCache)
+                .build());
+        Mockito.doReturn(Either.right(this.identity)).when(cachingServer).fetchCredentials("system_id");
+
+        cachingServer.getCredentials("system_id");
+        final var credentials = cachingServer.getCredentials("system_id");
+
+        assertThat(credentials, is(equalTo(Either.right(this.identity))));
+        verify(cachingServer, times(1)).fetchCredentials("system_id");
+
+        identityCache.invalidate("system_id");
+        cachingServer.getCredentials("system_id");
+
+        verify(cachingServer, times(2)).fetchCredentials("system_id");
+    }
+
+    @Test
+    public void testUnsuccessfulCredentialsAreNotCached() {
+        final var identityCache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+        final var cachingServer = Mockito.spy(AuthenticationServerImpl.builder()
+                .config(this.identityConfiguration)
+                .identityCache(identityCache)
+                .build());
+        Mockito.doReturn(Either.left(ImmutableUnsuccessfulResponse.builder().error(SMPP_3004).build()))
+                .when(cachingServer)
+                .fetchCredentials("system_id");
+
+        cachingServer.getCredentials("system_id");
+        cachingServer.getCredentials("system_id");
+
+        verify(cachingServer, times(2)).fetchCredentials("system_id");
+        assertThat(identityCache.size(), is(0));
+    }
+
+    @Test
+    public void testPrefetchWithoutCache() {
+        assertThat(this.authenticationServer.prefetch(List.of("system_id")), is(0));
+        assertThat(this.authenticationServer.cachedSystemIds(10).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCachedSystemIds() {
+        final var identityCache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+        final var cachingServer = AuthenticationServerImpl.builder()
+                .config(this.identityConfiguration)
+                .identityCache(identityCache)
+                .build();
+        identityCache.put(this.identity, identityCache.version());
+
+        assertThat(cachingServer.cachedSystemIds(10), contains("system_id"));
+    }
+
+    @Test
+    public void testWarmUpCodePathsDoesNotTouchDynamoDb() {
+        this.authenticationServer.warmUpCodePaths(10);
+
+        verify(this.authenticationServer, never()).fetchCredentials(anyString());
+    }
+
+    @Test
+    public void testCancelledWarmUpCodePaths() {
+        final var checks = new AtomicInteger();
+
+        // cancelled after three authentications
+        this.authenticationServer.warmUpCodePaths(1000, () -> checks.incrementAndGet() > 3);
+
+        assertThat(checks.get(), is(4));
+    }
+
+    @Test
+    public void testCancelledPrefetch() {
+        final var cachingServer = AuthenticationServerImpl.builder()
+                .config(this.identityConfiguration)
+                .identityCache(new OnHeapIdentityCache(Duration.ofMinutes(1), 10))
+                .build();
+
+        assertThat(cachingServer.prefetch(List.of("system_id"), () -> true), is(0));
+    }
+
+    @Test
+    public void testBinaryIdentityIsPreferred() {
+        final var identityBin = new PackedIdentity("system_id",
+                PackedIdentity.pack("customer_id", this.passwordHash, "1.2.3.0/24,2001:db8::/32")).toAttribute();
+        final var binaryItem = this.item.withString("ip_allow_list", "1.2.3.0/24,2001:db8::/32")
+                .withBinary("identity_bin", identityBin);
+
+        final var identity = this.authenticationServer.fromDynamoDb(binaryItem).get();
+
+        assertThat(identity instanceof PackedIdentity, is(true));
+        assertThat(identity.customerId(), is("customer_id"));
+        assertThat(identity.passwordHash(), is(this.passwordHash));
+        assertThat(identity.isIpAllowed("1.2.3.200"), is(true));
+        assertThat(identity.isIpAllowed("2001:db8:1::1"), is(true));
+        assertThat(identity.isIpAllowed("2001:db9::1"), is(false));
+        assertThat(AuthenticationServerImpl.checkIpAddress(identity, this.authenticationRequest), is(true));
+        assertThat(AuthenticationServerImpl.checkIpAddress(identity, this.incorrectIpRequest), is(false));
+    }
+
+    @Test
+    public void testChangedTextPasswordHashShadowsBinaryIdentity() {
+        final var identityBin = new PackedIdentity("system_id",
+                PackedIdentity.pack("customer_id", this.passwordHash, "1.2.3.4/32,1.2.3.5")).toAttribute();
+        final var changedHash = BCrypt.hashpw("changed", BCrypt.gensalt(4));
+        final var changedItem = this.item.withString("password_hash", changedHash)
+                .withBinary("identity_bin", identityBin);
+
+        final var identity = this.authenticationServer.fromDynamoDb(changedItem).get();
+
+        assertThat(identity instanceof PackedIdentity, is(false));
+        assertThat(identity.passwordHash(), is(changedHash));
+    }
+
+    @Test
+    public void testChangedTextIpAllowListShadowsBinaryIdentity() {
+        final var identityBin = new PackedIdentity("system_id",
+                PackedIdentity.pack("customer_id", this.passwordHash, "1.2.3.4/32,1.2.3.5")).toAttribute();
+        final var changedItem = this.item.withString("ip_allow_list", "1.2.3.5")
+                .withBinary("identity_bin", identityBin);
+
+        final var identity = this.authenticationServer.fromDynamoDb(changedItem).get();
+
+        assertThat(identity instanceof PackedIdentity, is(false));
+        assertThat(identity.isIpAllowed("1.2.3.4"), is(false));
+        assertThat(identity.isIpAllowed("1.2.3.5"), is(true));
+    }
+
+    @Test
+    public void testBinaryIdentityWithoutTextAttributes() {
+        final var identityBin =
+                new PackedIdentity("system_id", PackedIdentity.pack("customer_id", this.passwordHash, null))
+                        .toAttribute();
+        final var binaryItem = new Item().withPrimaryKey("system_id", "system_id").withBinary("identity_bin", identityBin);
+
+        final var identity = this.authenticationServer.fromDynamoDb(binaryItem).get();
+
+        assertThat(identity.customerId(), is("customer_id"));
+        assertThat(identity.ipAllowList(), is(Optional.empty()));
+    }
+
+    @Test
+    public void testMalformedBinaryIdentityFallsBackToText() {
+        final var unknownFormat = this.item.withBinary("identity_bin", new byte[] {99, 1, 2});
+
+        final var identity = this.authenticationServer.fromDynamoDb(unknownFormat).get();
+
+        assertThat(identity.customerId(), is("customer_id"));
+        assertThat(identity.isIpAllowed("1.2.3.5"), is(true));
+    }
+
+    @Test
+    public void testRehashTextIdentityFromOffHeapCache() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(this.identity, cache.version());
+        final var cached = cache.get("system_id").get();
+
+        final var update = this.rehash(cached);
+
+        assertThat(cached instanceof PackedIdentity, is(true));
+        assertThat(cached.fromIdentityBin(), is(false));
+        assertThat(update.getUpdateExpression(), is("set password_hash = :new"));
+        assertThat(update.getConditionExpression(), is("password_hash = :old"));
+    }
+
+    @Test
+    public void testRehashBinaryIdentityFromOffHeapCache() {
+        final var identityBin = new PackedIdentity("system_id",
+                PackedIdentity.pack("customer_id", this.passwordHash, "1.2.3.4/32,1.2.3.5")).toAttribute();
+        final var binaryIdentity =
+                this.authenticationServer.fromDynamoDb(this.item.withBinary("identity_bin", identityBin)).get();
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(binaryIdentity, cache.version());
+        final var cached = cache.get("system_id").get();
+
+        final var update = this.rehash(cached);
+
+        assertThat(cached.fromIdentityBin(), is(true));
+        assertThat(update.getUpdateExpression(), is("set identity_bin = :new, password_hash = :newHash"));
+    }
+
+    /**
+     * Rehash the identity and capture the first update written to DynamoDB
+     */
+    private UpdateItemSpec rehash(final Identity identity) {
+        final var rehashingServer = Mockito.spy(AuthenticationServerImpl.builder()
+                .config(ImmutableIdentityConfiguration.copyOf(this.identityConfiguration)
+                        .withPasswordHashConfiguration(ImmutableIdentityPasswordHashConfiguration.builder()
+                                .algorithm(PasswordHashAlgorithm.BCRYPT)
+                                .cost(4)
+                                .build()))
+                .build());
+        Mockito.doNothing().when(rehashingServer).updateOnHome(any());
+        final var update = ArgumentCaptor.forClass(UpdateItemSpec.class);
+
+        rehashingServer.rehashPassword(identity, this.authenticationRequest.password());
+
+        verify(rehashingServer, timeout(5_000)).updateOnHome(update.capture());
+        return update.getValue();
+    }
+
+    @Test
+    public void testLatencyEqualization() throws Exception {
+        final var server = Mockito.spy(AuthenticationServerImpl.builder()
+                .config(ImmutableIdentityConfiguration.copyOf(this.identityConfiguration)
+                        .withLatencyEqualizationConfiguration(ImmutableLatencyEqualizationConfiguration.builder()
+                                .build()))
+                .build());
+        final var unknownRequest = ImmutableAuthenticationRequest.copyOf(this.authenticationRequest)
+                .withSystemId("unknown");
+        Mockito.doReturn(Either.right(this.identity)).when(server).getCredentials("system_id");
+        Mockito.doReturn(Either.left(ImmutableUnsuccessfulResponse.builder().error(SMPP_3001).build()))
+                .when(server).getCredentials("unknown");
+        for (int i = 0; i < 10; i++) {
+            assertThat(server.authenticateAsync(this.authenticationRequest).get().isRight(), is(true));
+        }
+
+        final var unknownMillis = new ArrayList<Long>();
+        final var incorrectPasswordMillis = new ArrayList<Long>();
+        for (int i = 0; i < 15; i++) {
+            unknownMillis.add(authenticationMillis(server, unknownRequest, SMPP_3001));
+            incorrectPasswordMillis.add(authenticationMillis(server, this.incorrectPasswordRequest, SMPP_3003));
+        }
+
+        // the unknown system_id is released at the latency of a password check instead of right after the lookup
+        final var unknownMedian = median(unknownMillis);
+        final var incorrectPasswordMedian = median(incorrectPasswordMillis);
+        assertThat(unknownMedian > (incorrectPasswordMedian / 2), is(true));
+        assertThat(unknownMedian < (incorrectPasswordMedian * 2), is(true));
+    }
+
+    private static long authenticationMillis(final AuthenticationServerImpl server,
+            final AuthenticationRequest request, final SmppError error) throws Exception {
+        final var start = System.nanoTime();
+        final var authentication = server.authenticateAsync(request).get();
+        assertThat(authentication.getLeft().error(), is(error));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static long median(final List<Long> values) {
+        final var sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.naturalOrder());
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,114 @@
+package authentication.cache;
+
+import authentication.Identity;
+import authentication.ImmutableIdentity;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.net.util.SubnetUtils;
+import org.apache.commons.net.util.SubnetUtils.SubnetInfo;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Compares the memory per identity and the lookup latency of the on-heap and the off-heap identity cache.
+ * The heap usage is measured after full GCs, so run it with a heap large enough for the identities and without
+ * other load, e.g. {@code -Xmx4g}.
+ *
+ * Run with {@code java -cp <test classpath> authentication.cache.IdentityCacheBenchmark [identities] [lookups]}
+ */
+public final class IdentityCacheBenchmark {
+
+    private IdentityCacheBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final var identities = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        final var lookups = (args.length > 1) ? Integer.parseInt(args[1]) : 5_000_000;
+        final var passwordHash = BCrypt.hashpw("password", BCrypt.gensalt(10));
+
+        final var heapBefore = usedHeap();
+        final var onHeap = new OnHeapIdentityCache(Duration.ofHours(1), identities);
+        fill(onHeap, identities, passwordHash);
+        final var onHeapBytes = usedHeap() - heapBefore;
+        report("on-heap", identities, onHeapBytes, lookup(onHeap, identities, lookups));
+
+        final var offHeapHeapBefore = usedHeap();
+        final var offHeap = new OffHeapIdentityCache(Duration.ofHours(1), identities);
+        fill(offHeap, identities, passwordHash);
+        final var offHeapBytes = offHeap.offHeapBytes() + Math.max(0, usedHeap() - offHeapHeapBefore);
+        report("off-heap", identities, offHeapBytes, lookup(offHeap, identities, lookups));
+
+        // keep the on-heap cache reachable until the end of the measurement
+        System.out.println(onHeap.size() + offHeap.size() + " identities cached");
+    }
+
+    private static void fill(final IdentityCache cache, final int identities, final String passwordHash) {
+        for (int i = 0; i < identities; i++) {
+            cache.put(identity(i, passwordHash), cache.version());
+        }
+    }
+
+    private static Identity identity(final int i, final String passwordHash) {
+        return ImmutableIdentity.builder()
+                .systemId("system_id_" + i)
+                .customerId("customer_" + (i / 4))
+                .passwordHash(passwordHash)
+                .ipAllowList(Set.of(range("10." + ((i >> 8) & 0xFF) + '.' + (i & 0xFF) + ".0/24"),
+                        range("192.168.0." + (i & 0xFF) + "/32")))
+                .build();
+    }
+
+    private static SubnetInfo range(final String cidr) {
+        final var subnet = new SubnetUtils(cidr);
+        subnet.setInclusiveHostCount(true);
+        return subnet.getInfo();
+    }
+
+    /**
+     * Lookups of random system IDs, decoding what a bind needs
+     *
+     * @return nanoseconds per lookup
+     */
+    private static double lookup(final IdentityCache cache, final int identities, final int lookups) {
+        final var systemIds = new String[Math.min(identities, 100_000)];
+        for (int i = 0; i < systemIds.length; i++) {
+            systemIds[i] = "system_id_" + ThreadLocalRandom.current().nextInt(identities);
+        }
+        long consumed = 0;
+        // warm-up
+        for (int i = 0; i < lookups / 10; i++) {
+            consumed += bind(cache, systemIds[i % systemIds.length]);
+        }
+        final var start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            consumed += bind(cache, systemIds[i % systemIds.length]);
+        }
+        final var elapsed = System.nanoTime() - start;
+        if (consumed == 0) {
+            throw new IllegalStateException("No identity found");
+        }
+        return (double) elapsed / lookups;
+    }
+
+    private static int bind(final IdentityCache cache, final String systemId) {
+        final var identity = cache.get(systemId).orElseThrow();
+        return identity.passwordHash().length() + identity.customerId().length()
+                + (identity.isIpAllowed("10.0.0.1") ? 1 : 0);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(final String name, final int identities, final long bytes, final double lookupNanos) {
+        System.out.printf("%-10s %8d identities %10.1f MB = %6.0f bytes/identity, %6.0f ns/lookup%n", name,
+                identities, bytes / 1e6, (double) bytes / identities, lookupNanos);
+    }
+}
@@ -0,0 +1,258 @@
+package authentication.cache;
+
+import authentication.Identity;
+import authentication.ImmutableIdentity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.net.util.SubnetUtils;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class OffHeapIdentityCacheTest {
+    private final Identity identity =
+            ImmutableIdentity.builder().systemId("system_id").customerId("customer_id").passwordHash("hash").build();
+
+    @Test
+    public void testGetCachedIdentity() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(this.identity, cache.version());
+
+        final var cached = cache.get("system_id").get();
+        assertThat(cached.systemId(), is("system_id"));
+        assertThat(cached.customerId(), is("customer_id"));
+        assertThat(cached.passwordHash(), is("hash"));
+        assertThat(cached.ipAllowList(), is(Optional.empty()));
+        assertThat(cache.get("unknown"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testKeepsIdentityBinOrigin() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        final var record = PackedIdentity.pack(this.identity);
+        cache.put(new PackedIdentity("binary", record, true), cache.version());
+        cache.put(new PackedIdentity("text", record), cache.version());
+        cache.put(this.identity, cache.version());
+
+        assertThat(cache.get("binary").get().fromIdentityBin(), is(true));
+        assertThat(cache.get("text").get().fromIdentityBin(), is(false));
+        assertThat(cache.get("system_id").get().fromIdentityBin(), is(false));
+    }
+
+    @Test
+    public void testIpAllowList() {
+        final var subnet = new SubnetUtils("10.1.2.0/24");
+        subnet.setInclusiveHostCount(true);
+        final var host = new SubnetUtils("1.2.3.4/32");
+        host.setInclusiveHostCount(true);
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(ImmutableIdentity.copyOf(this.identity).withIpAllowList(Set.of(subnet.getInfo(), host.getInfo())),
+                cache.version());
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("empty").withIpAllowList(Set.of()),
+                cache.version());
+
+        final var ipAllowList = cache.get("system_id").get().ipAllowList().get();
+        assertThat(ipAllowList.stream().map(range -> range.getCidrSignature()).collect(Collectors.toList()),
+                containsInAnyOrder("10.1.2.0/24", "1.2.3.4/32"));
+        assertThat(ipAllowList.stream().anyMatch(range -> range.isInRange("10.1.2.200")), is(true));
+        assertThat(ipAllowList.stream().anyMatch(range -> range.isInRange("1.2.3.4")), is(true));
+        assertThat(ipAllowList.stream().anyMatch(range -> range.isInRange("1.2.3.5")), is(false));
+        assertThat(cache.get("empty").get().ipAllowList(), is(Optional.of(Set.of())));
+    }
+
+    @Test
+    public void testIsIpAllowedOnPackedRanges() {
+        final var subnet = new SubnetUtils("10.1.2.0/24");
+        subnet.setInclusiveHostCount(true);
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(ImmutableIdentity.copyOf(this.identity).withIpAllowList(Set.of(subnet.getInfo())), cache.version());
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("any"), cache.version());
+        final var cached = cache.get("system_id").get();
+
+        assertThat(cached.isIpAllowed("10.1.2.0"), is(true));
+        assertThat(cached.isIpAllowed("10.1.2.255"), is(true));
+        assertThat(cached.isIpAllowed("10.1.3.1"), is(false));
+        assertThat(cache.get("any").get().isIpAllowed("1.2.3.4"), is(true));
+        for (final String invalid : new String[] {"incorrect", "10.1.2", "10.1.2.256", "10.1.2.1.1", "10..2.1", ""}) {
+            try {
+                cached.isIpAllowed(invalid);
+                throw new AssertionError("Accepted " + invalid);
+            } catch (final IllegalArgumentException e) {
+                // expected, like SubnetInfo.isInRange
+            }
+        }
+    }
+
+    @Test
+    public void testSupportedMaxEntries() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapIdentityCache(Duration.ofMinutes(1), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapIdentityCache(Duration.ofMinutes(1), OffHeapIdentityCache.MAX_ENTRIES + 1));
+        // the index of the largest cache still fits in a ByteBuffer
+        assertThat((long) OffHeapIdentityCache.slots(OffHeapIdentityCache.MAX_ENTRIES)
+                * OffHeapIdentityCache.SLOT_BYTES <= Integer.MAX_VALUE, is(true));
+        assertThat((long) OffHeapIdentityCache.slots(OffHeapIdentityCache.MAX_ENTRIES + 1)
+                * OffHeapIdentityCache.SLOT_BYTES > Integer.MAX_VALUE, is(true));
+    }
+
+    @Test
+    public void testExpiredIdentity() {
+        final var start = Instant.parse("2021-01-01T00:00:00Z");
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10, Clock.fixed(start, ZoneOffset.UTC));
+        cache.put(this.identity, cache.version());
+        final var expiredCache =
+                new OffHeapIdentityCache(Duration.ZERO, 10, Clock.fixed(start, ZoneOffset.UTC));
+        expiredCache.put(this.identity, expiredCache.version());
+
+        assertThat(cache.get("system_id").isPresent(), is(true));
+        assertThat(expiredCache.get("system_id"), is(Optional.empty()));
+        assertThat(expiredCache.size(), is(0));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(this.identity, cache.version());
+
+        cache.invalidate("system_id");
+
+        assertThat(cache.get("system_id"), is(Optional.empty()));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testInvalidationDuringFetchIsNotOverwritten() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10);
+        final var version = cache.version();
+
+        cache.invalidate("system_id");
+        cache.put(this.identity, version);
+
+        assertThat(cache.get("system_id"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testMaxEntries() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 1);
+        cache.put(this.identity, cache.version());
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("other"), cache.version());
+
+        assertThat(cache.size(), is(1));
+        assertThat(cache.get("system_id"), is(Optional.empty()));
+        assertThat(cache.get("other").isPresent(), is(true));
+    }
+
+    @Test
+    public void testPutIntoFullCache() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 1000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("system_id_" + i), cache.version());
+        }
+        final var offHeapBytes = cache.offHeapBytes();
+
+        // every insert evicts a single entry instead of rebuilding the cache
+        for (int i = 1000; i < 50_000; i++) {
+            cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("system_id_" + i), cache.version());
+            assertThat(cache.size(), is(1000));
+            assertThat(cache.get("system_id_" + i).isPresent(), is(true));
+        }
+        assertThat(cache.systemIds(2000).size(), is(1000));
+        assertThat(cache.offHeapBytes() <= offHeapBytes * 2, is(true));
+    }
+
+    @Test
+    public void testFullCacheEvictsExpiredFirst() {
+        final var clock = new MutableClock();
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 16, clock);
+        for (int i = 0; i < 15; i++) {
+            cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("fresh_" + i), cache.version());
+        }
+        clock.advance(Duration.ofSeconds(30));
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("expiring"), cache.version());
+        clock.advance(Duration.ofSeconds(65));
+        for (int i = 0; i < 15; i++) {
+            cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("fresh_" + i), cache.version());
+        }
+
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("new"), cache.version());
+
+        assertThat(cache.size(), is(16));
+        for (int i = 0; i < 15; i++) {
+            assertThat(cache.get("fresh_" + i).isPresent(), is(true));
+        }
+        assertThat(cache.get("new").isPresent(), is(true));
+    }
+
+    @Test
+    public void testReplaceAndCompact() {
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 1000);
+        // replacing the identities leaves tombstones and garbage, which forces compactions and arena growth
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1000; i++) {
+                cache.put(ImmutableIdentity.copyOf(this.identity)
+                        .withSystemId("system_id_" + i)
+                        .withPasswordHash("hash_" + round + '_' + i), cache.version());
+            }
+        }
+
+        assertThat(cache.size(), is(1000));
+        for (int i = 0; i < 1000; i++) {
+            assertThat(cache.get("system_id_" + i).get().passwordHash(), is(equalTo("hash_19_" + i)));
+        }
+        assertThat(cache.systemIds(5).size(), is(5));
+        assertThat(cache.systemIds(2000).size(), is(1000));
+    }
+
+    @Test
+    public void testSystemIdsMostRecentlyAccessedFirst() {
+        final var clock = new MutableClock();
+        final var cache = new OffHeapIdentityCache(Duration.ofMinutes(1), 10, clock);
+        for (final String systemId : List.of("a", "b", "c")) {
+            cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId(systemId), cache.version());
+        }
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("c");
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("a");
+
+        assertThat(cache.systemIds(2), contains("a", "c"));
+        assertThat(cache.systemIds(10), contains("a", "c", "b"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2021-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package authentication.cache;
+
+import authentication.Identity;
+import authentication.ImmutableIdentity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class OnHeapIdentityCacheTest {
+    private final Identity identity =
+            ImmutableIdentity.builder().systemId("system_id").customerId("customer_id").passwordHash("hash").build();
+
+    @Test
+    public void testGetCachedIdentity() {
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(this.identity, cache.version());
+
+        assertThat(cache.get("system_id"), is(equalTo(Optional.of(this.identity))));
+        assertThat(cache.get("unknown"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testExpiredIdentity() {
+        final var start = Instant.parse("2021-01-01T00:00:00Z");
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10, Clock.fixed(start, ZoneOffset.UTC));
+        cache.put(this.identity, cache.version());
+        final var expiredCache =
+                new OnHeapIdentityCache(Duration.ZERO, 10, Clock.fixed(start, ZoneOffset.UTC));
+        expiredCache.put(this.identity, expiredCache.version());
+
+        assertThat(cache.get("system_id").isPresent(), is(true));
+        assertThat(expiredCache.get("system_id"), is(Optional.empty()));
+        assertThat(expiredCache.size(), is(0));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+        cache.put(this.identity, cache.version());
+
+        cache.invalidate("system_id");
+
+        assertThat(cache.get("system_id"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testInvalidationDuringFetchIsNotOverwritten() {
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+        final var version = cache.version();
+
+        cache.invalidate("system_id");
+        cache.put(this.identity, version);
+
+        assertThat(cache.get("system_id"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testMaxEntries() {
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 1);
+        cache.put(this.identity, cache.version());
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("other"), cache.version());
+
+        assertThat(cache.size(), is(1));
+        assertThat(cache.get("other"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testFullCacheScansForExpiredIdentitiesPeriodically() {
+        final var clock = new MutableClock(Instant.parse("2021-01-01T00:00:00Z"));
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 1, clock);
+        final var scanInterval = Duration.ofMinutes(1).dividedBy(OnHeapIdentityCache.EXPIRY_SCANS_PER_TTL);
+        cache.put(this.identity, cache.version());
+        clock.advance(Duration.ofSeconds(59));
+        // scans the cache of live identities, the next scan is due after the interval
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("first"), cache.version());
+
+        clock.advance(Duration.ofSeconds(2));
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("second"), cache.version());
+        assertThat(cache.size(), is(1));
+        assertThat(cache.get("second"), is(Optional.empty()));
+
+        clock.advance(scanInterval);
+        cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId("third"), cache.version());
+        assertThat(cache.get("third").isPresent(), is(true));
+    }
+
+    @Test
+    public void testSystemIdsMostRecentlyAccessedFirst() {
+        final var clock = new MutableClock(Instant.parse("2021-01-01T00:00:00Z"));
+        final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10, clock);
+        for (final String systemId : List.of("a", "b", "c")) {
+            cache.put(ImmutableIdentity.copyOf(this.identity).withSystemId(systemId), cache.version());
+        }
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("c");
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("a");
+
+        assertThat(cache.systemIds(2), contains("a", "c"));
+        assertThat(cache.systemIds(10), contains("a", "c", "b"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(final Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(final Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package authentication.execution;
+
+import protocol.AuthenticationRequest;
+import protocol.ImmutableAuthenticationRequest;
+import protocol.configuration.ExecutionMode;
+import protocol.configuration.IdentityConfiguration;
+import protocol.configuration.ImmutableIdentityConfiguration;
+import protocol.configuration.ImmutableIdentityDynamoDBConfiguration;
+import authentication.AuthenticationServerImpl;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Compares the throughput of complete authentications on the platform thread pool and on virtual threads. The
+ * authentications run through the real DynamoDB client against a local endpoint that answers a GetItem after a
+ * typical round trip, so the client's connection pool and its synchronized sections are part of the measurement.
+ * Virtual threads pinned while blocking in there are counted by the {@link VirtualThreadPinningMonitor}.
+ *
+ * At most {@code concurrency} authentications are in flight, like the binds of that many SMPP sessions. Lookups
+ * beyond the client's connection pool wait for a free connection of the replica instead of timing out in the pool,
+ * failed authentications are still reported per error. A run that does not finish within {@code timeoutSeconds} is
+ * reported as stalled.
+ *
+ * Run with {@code java -cp <test classpath> authentication.execution.AuthenticationExecutorsBenchmark
+ * [authentications] [lookupMillis] [platformThreads] [concurrency] [timeoutSeconds]}
+ */
+public final class AuthenticationExecutorsBenchmark {
+
+    private static final String PASSWORD = "password";
+
+    private AuthenticationExecutorsBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final var authentications = (args.length > 0) ? Integer.parseInt(args[0]) : 5_000;
+        final var lookupMillis = (args.length > 1) ? Long.parseLong(args[1]) : 25;
+        final var platformThreads = (args.length > 2) ? Integer.parseInt(args[2]) : 64;
+        final var concurrency = (args.length > 3) ? Integer.parseInt(args[3]) : 256;
+        final var timeoutSeconds = (args.length > 4) ? Long.parseLong(args[4]) : 120;
+
+        // the local endpoint accepts any credentials, they only have to exist
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretKey", "benchmark");
+        final var dynamoDB = startDynamoDB(lookupMillis, concurrency);
+        final var endpoint = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ':'
+                + dynamoDB.getAddress().getPort();
+        try {
+            final var platform = AuthenticationServerImpl.builder()
+                    .config(configuration(endpoint, ExecutionMode.PLATFORM, platformThreads))
+                    .build();
+            final var virtual = AuthenticationServerImpl.builder()
+                    .config(configuration(endpoint, ExecutionMode.VIRTUAL, platformThreads))
+                    .build();
+
+            final var benchmark = new Run(authentications, concurrency, timeoutSeconds);
+            // warm-up
+            new Run(authentications / 10, concurrency, timeoutSeconds).run(platform);
+            new Run(authentications / 10, concurrency, timeoutSeconds).run(virtual);
+
+            report("platform (" + platformThreads + " threads)", authentications, benchmark.run(platform));
+            report("virtual", authentications, benchmark.run(virtual));
+            // the pinned events are delivered asynchronously
+            Thread.sleep(2_000);
+            System.out.printf("virtual threads pinned: %.0f%n",
+                    Metrics.globalRegistry.counter("authentication.virtual_threads.pinned").count());
+        } finally {
+            dynamoDB.stop(0);
+            ((ExecutorService) dynamoDB.getExecutor()).shutdownNow();
+        }
+    }
+
+    private static IdentityConfiguration configuration(final String endpoint, final ExecutionMode executionMode,
+            final int platformThreads) {
+        return ImmutableIdentityConfiguration.builder()
+                .dynamoDBConfiguration(ImmutableIdentityDynamoDBConfiguration.builder()
+                        .endpoint(endpoint)
+                        .local(true)
+                        .region("us-east-1")
+                        .retries(0)
+                        .tableName("smpp.identity")
+                        .socketTimeoutMillis(10_000)
+                        .requestTimeoutMillis(10_000)
+                        .clientExecutionTimeoutMillis(60_000)
+                        .build())
+                .executionMode(executionMode)
+                .platformThreads(platformThreads)
+                .pinnedThresholdMillis(1)
+                .build();
+    }
+
+    /**
+     * Answer every request with the same identity after the lookup latency, like a GetItem of DynamoDB. It stands
+     * for a remote service, so it runs on platform threads that pinned virtual threads cannot starve.
+     */
+    private static HttpServer startDynamoDB(final long lookupMillis, final int concurrency) throws IOException {
+        final var item = "{\"Item\":{"
+                + "\"system_id\":{\"S\":\"system_id\"},"
+                + "\"customer_id\":{\"S\":\"customer_id\"},"
+                + "\"password_hash\":{\"S\":\"" + BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4)) + "\"},"
+                + "\"ip_allow_list\":{\"S\":\"127.0.0.0/8\"}}}";
+        final var response = item.getBytes(StandardCharsets.UTF_8);
+
+        final var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(Executors.newFixedThreadPool(concurrency));
+        server.createContext("/", exchange -> respond(exchange, response, lookupMillis));
+        server.start();
+        return server;
+    }
+
+    private static void respond(final HttpExchange exchange, final byte[] response, final long lookupMillis)
+            throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(lookupMillis);
+            exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.0");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Authentications with a bounded number in flight
+     */
+    private static final class Run {
+        private final int authentications;
+        private final int concurrency;
+        private final long timeoutSeconds;
+
+        Run(final int authentications, final int concurrency, final long timeoutSeconds) {
+            this.authentications = authentications;
+            this.concurrency = concurrency;
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        /**
+         * @return the elapsed nanoseconds, or -1 when the authentications did not finish in time
+         */
+        long run(final AuthenticationServerImpl server) throws Exception {
+            final AuthenticationRequest request = ImmutableAuthenticationRequest.builder()
+                    .systemId("system_id")
+                    .password(PASSWORD)
+                    .ip("127.0.0.1")
+                    .build();
+            final var inFlight = new Semaphore(this.concurrency);
+            final var futures = new ArrayList<CompletableFuture<String>>(this.authentications);
+            final var start = System.nanoTime();
+            final var deadline = start + TimeUnit.SECONDS.toNanos(this.timeoutSeconds);
+            for (int i = 0; i < this.authentications; i++) {
+                if (!inFlight.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return stalled(futures);
+                }
+                futures.add(server.authenticateAsync(request)
+                        .thenApply(result -> result.isRight() ? "" : result.getLeft().error().name())
+                        .whenComplete((result, e) -> inFlight.release()));
+            }
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException e) {
+                return stalled(futures);
+            }
+            final var elapsed = System.nanoTime() - start;
+
+            final var failed = futures.stream()
+                    .map(CompletableFuture::join)
+                    .filter(error -> !error.isEmpty())
+                    .collect(Collectors.groupingBy(error -> error, TreeMap::new, Collectors.counting()));
+            if (!failed.isEmpty()) {
+                System.out.println("failed authentications: " + failed);
+            }
+            return elapsed;
+        }
+
+        private long stalled(final ArrayList<CompletableFuture<String>> futures) {
+            final var done = futures.stream().filter(CompletableFuture::isDone).count();
+            System.out.printf("stalled after %d s: %d of %d authentications done%n", this.timeoutSeconds, done,
+                    this.authentications);
+            return -1;
+        }
+    }
+
+    private static void report(final String name, final int authentications, final long elapsedNanos) {
+        if (elapsedNanos < 0) {
+            System.out.printf("%-24s stalled%n", name);
+            return;
+        }
+        final var seconds = elapsedNanos / 1e9;
+        System.out.printf("%-24s %8d authentications in %6.2f s = %10.0f authentications/s%n", name,
+                authentications, seconds, authentications / seconds);
+    }
+}
@@ -0,0 +1,48 @@
+package authentication.execution;
+
+import protocol.configuration.ExecutionMode;
+import protocol.configuration.ImmutableIdentityConfiguration;
+import protocol.configuration.ImmutableIdentityDynamoDBConfiguration;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class AuthenticationExecutorsTest {
+    private final ImmutableIdentityConfiguration identityConfiguration = ImmutableIdentityConfiguration.builder()
+            .dynamoDBConfiguration(ImmutableIdentityDynamoDBConfiguration.builder()
+                    .endpoint("endpoint")
+                    .local(false)
+                    .region("region")
+                    .retries(1)
+                    .tableName("tableName")
+                    .build())
+            .build();
+
+    @Test
+    public void testPlatformExecutionModeIsDefault() throws Exception {
+        final var executor = AuthenticationExecutors.create(this.identityConfiguration);
+
+        final var thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get();
+
+        assertThat(thread.isVirtual(), is(false));
+        assertThat(thread.getName(), startsWith("authentication-"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testVirtualExecutionMode() throws Exception {
+        final var executor =
+                AuthenticationExecutors.create(this.identityConfiguration.withExecutionMode(ExecutionMode.VIRTUAL));
+
+        final var thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get();
+
+        assertThat(thread.isVirtual(), is(true));
+        assertThat(thread.getName(), startsWith("authentication-"));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,218 @@
+package authentication.invalidation;
+
+import protocol.configuration.IdentityConfiguration;
+import protocol.configuration.ImmutableIdentityCacheConfiguration;
+import protocol.configuration.ImmutableIdentityConfiguration;
+import protocol.configuration.ImmutableIdentityDynamoDBConfiguration;
+import protocol.configuration.ImmutableIdentityInvalidationConfiguration;
+import protocol.configuration.InvalidationTransportType;
+import authentication.ImmutableIdentity;
+import authentication.cache.IdentityCache;
+import authentication.cache.OnHeapIdentityCache;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class IdentityInvalidationBusTest {
+    private static final long BATCH_MILLIS = 10;
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final byte[] SECRET = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final List<IdentityInvalidationBus> buses = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        this.buses.forEach(IdentityInvalidationBus::close);
+    }
+
+    @Test
+    public void testInProcessInvalidationReachesAllNodes() throws Exception {
+        final var transport = new InProcessInvalidationTransport();
+        final var caches = this.startNodes(List.of(transport, transport.join(), transport.join()));
+
+        this.buses.get(0).invalidate("system_id");
+
+        awaitInvalidated(caches, "system_id");
+        assertThat(caches.get(1).get("other").isPresent(), is(true));
+    }
+
+    @Test
+    public void testInvalidationRequiresIdentityCache() {
+        final var configuration = ImmutableIdentityConfiguration.builder()
+                .dynamoDBConfiguration(ImmutableIdentityDynamoDBConfiguration.builder()
+                        .endpoint("endpoint")
+                        .local(false)
+                        .region("region")
+                        .retries(1)
+                        .tableName("tableName")
+                        .build())
+                .build();
+        final var invalidation = ImmutableIdentityInvalidationConfiguration.builder()
+                .transport(InvalidationTransportType.UDP)
+                .bindAddress("127.0.0.1")
+                .port(4570)
+                .sharedSecret(Base64.getEncoder().encodeToString(SECRET))
+                .build();
+
+        assertThrows(IllegalStateException.class,
+                () -> ImmutableIdentityConfiguration.copyOf(configuration).withInvalidationConfiguration(invalidation));
+        final IdentityConfiguration cached = ImmutableIdentityConfiguration.copyOf(configuration)
+                .withIdentityCacheConfiguration(ImmutableIdentityCacheConfiguration.builder()
+                        .ttlSeconds(60)
+                        .maxEntries(10)
+                        .build())
+                .withInvalidationConfiguration(invalidation);
+        assertThat(cached.invalidationConfiguration().isPresent(), is(true));
+    }
+
+    @Test
+    public void testUdpInvalidationReachesAllNodes() throws Exception {
+        final var transports = new ArrayList<UdpInvalidationTransport>();
+        final var ports = new ArrayList<Integer>();
+        for (int i = 0; i < 3; i++) {
+            final var transport =
+                    new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), 0, null, List.of(), SECRET);
+            transports.add(transport);
+            ports.add(transport.localPort());
+        }
+        transports.forEach(UdpInvalidationTransport::close);
+
+        // every node sends to the two others over loopback
+        final var peered = new ArrayList<InvalidationTransport>();
+        for (final int port : ports) {
+            final var peers = ports.stream()
+                    .filter(peer -> peer != port)
+                    .map(peer -> new InetSocketAddress(InetAddress.getLoopbackAddress(), peer))
+                    .collect(Collectors.toList());
+            peered.add(new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), port, null, peers, SECRET));
+        }
+        final var caches = this.startNodes(peered);
+
+        this.buses.get(2).invalidate("system_id");
+
+        awaitInvalidated(caches, "system_id");
+        assertThat(caches.get(0).get("other").isPresent(), is(true));
+    }
+
+    @Test
+    public void testUnauthenticatedDatagramsAreDropped() throws Exception {
+        final var received = new CopyOnWriteArrayList<Collection<String>>();
+        final var transport =
+                new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), 0, null, List.of(), SECRET);
+        transport.subscribe(received::add);
+        final var target = new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.localPort());
+        final var wrongSecret = "fedcba9876543210".getBytes(StandardCharsets.UTF_8);
+        final var outdatedClock = Clock.offset(Clock.systemUTC(),
+                Duration.ofMillis(-2 * UdpInvalidationTransport.MAX_AGE_MILLIS));
+
+        try (var forged = new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), 0, null, List.of(target),
+                wrongSecret);
+                var outdated = new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), 0, null,
+                        List.of(target), SECRET, outdatedClock);
+                var valid = new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), 0, null, List.of(target),
+                        SECRET)) {
+            forged.publish(List.of("forged"));
+            outdated.publish(List.of("outdated"));
+            valid.publish(List.of("valid"));
+
+            final var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (received.isEmpty() && (System.currentTimeMillis() < deadline)) {
+                Thread.sleep(BATCH_MILLIS);
+            }
+        } finally {
+            transport.close();
+        }
+
+        assertThat(received, is(List.of(List.of("valid"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMulticastGroupOrPeers() throws Exception {
+        new UdpInvalidationTransport(InetAddress.getLoopbackAddress(), 0, InetAddress.getByName("239.1.1.1"),
+                List.of(new InetSocketAddress(InetAddress.getLoopbackAddress(), 4570)), SECRET);
+    }
+
+    @Test
+    public void testBatchesAreDeduplicated() {
+        final var transport = new InProcessInvalidationTransport();
+        final var received = new ArrayList<List<String>>();
+        transport.join().subscribe(batch -> received.add(List.copyOf(batch)));
+        final var bus = IdentityInvalidationBus.builder()
+                .identityCache(new OnHeapIdentityCache(Duration.ofMinutes(1), 10))
+                .transport(transport)
+                .batchMillis(Duration.ofHours(1).toMillis())
+                .build();
+        this.buses.add(bus);
+
+        bus.invalidate("a");
+        bus.invalidate("b");
+        bus.invalidate("a");
+        bus.flush();
+        bus.flush();
+
+        assertThat(received, is(List.of(List.of("a", "b"))));
+    }
+
+    @Test
+    public void testLargeBatchesAreSplit() {
+        final var systemIds = IntStream.range(0, 500).mapToObj(i -> "system_id_" + i).collect(Collectors.toList());
+
+        final var datagrams = UdpInvalidationTransport.encode(1L, 0L, systemIds);
+
+        assertThat(datagrams.size() > 1, is(true));
+        datagrams.forEach(datagram -> assertThat(datagram.limit() <= UdpInvalidationTransport.MAX_DATAGRAM_SIZE,
+                is(true)));
+    }
+
+    private List<IdentityCache> startNodes(final List<? extends InvalidationTransport> transports) {
+        final var caches = new ArrayList<IdentityCache>();
+        for (final InvalidationTransport transport : transports) {
+            final var cache = new OnHeapIdentityCache(Duration.ofMinutes(1), 10);
+            for (final String systemId : Set.of("system_id", "other")) {
+                cache.put(ImmutableIdentity.builder()
+                        .systemId(systemId)
+                        .customerId("customer_id")
+                        .passwordHash("hash")
+                        .build(), cache.version());
+            }
+            caches.add(cache);
+            this.buses.add(IdentityInvalidationBus.builder()
+                    .identityCache(cache)
+                    .transport(transport)
+                    .batchMillis(BATCH_MILLIS)
+                    .build());
+        }
+        return caches;
+    }
+
+    private static void awaitInvalidated(final List<IdentityCache> caches, final String systemId)
+            throws InterruptedException {
+        final var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (caches.stream().anyMatch(cache -> cache.get(systemId).isPresent())
+                && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(BATCH_MILLIS);
+        }
+        for (final IdentityCache cache : caches) {
+            assertThat(cache.get(systemId).isPresent(), is(false));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package authentication.invalidation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link InvalidationTransport} delivering batches to the other members of its group within the same JVM, for nodes
+ * started by a test
+ */
+public class InProcessInvalidationTransport implements InvalidationTransport {
+
+    private final Set<InProcessInvalidationTransport> group;
+    private final List<Consumer<Collection<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    public InProcessInvalidationTransport() {
+        this(ConcurrentHashMap.newKeySet());
+    }
+
+    private InProcessInvalidationTransport(final Set<InProcessInvalidationTransport> group) {
+        this.group = group;
+        this.group.add(this);
+    }
+
+    /**
+     * Create the transport of another member of this group
+     */
+    public InProcessInvalidationTransport join() {
+        return new InProcessInvalidationTransport(this.group);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Collection<String> systemIds) {
+        final var batch = List.copyOf(systemIds);
+        this.group.stream()
+                .filter(member -> member != this)
+                .forEach(member -> member.listeners.forEach(listener -> listener.accept(batch)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(final Consumer<Collection<String>> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        this.group.remove(this);
+        this.listeners.clear();
+    }
+}
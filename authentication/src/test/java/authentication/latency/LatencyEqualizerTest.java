@@ -0,0 +1,105 @@
+package authentication.latency;
+
+import protocol.configuration.ImmutableLatencyEqualizationConfiguration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class LatencyEqualizerTest {
+    private final Timer timer = mock(Timer.class);
+    private final LatencyEqualizer equalizer = new LatencyEqualizer(this.timer, 4, Duration.ofMillis(500), 2);
+
+    @Test
+    public void testConfigurationRequiresSamplesAndTicks() {
+        assertThrows(IllegalStateException.class,
+                () -> ImmutableLatencyEqualizationConfiguration.builder().sampleSize(0).build());
+        assertThrows(IllegalStateException.class,
+                () -> ImmutableLatencyEqualizationConfiguration.builder().tickMillis(0).build());
+        assertThat(ImmutableLatencyEqualizationConfiguration.builder().sampleSize(1).tickMillis(1).build()
+                .sampleSize(), is(1));
+    }
+
+    @Test
+    public void testNoDelayBeforeFirstSuccess() {
+        final var released = this.equalizer.release("failure", 1_000);
+
+        assertThat(released.getNow(null), is("failure"));
+        verify(this.timer, never()).newTimeout(any(), anyLong(), any());
+    }
+
+    @Test
+    public void testDelayToSuccessLatency() throws Exception {
+        this.equalizer.recordSuccess(TimeUnit.MILLISECONDS.toNanos(80));
+        final var task = ArgumentCaptor.forClass(TimerTask.class);
+
+        final var released = this.equalizer.release("failure", TimeUnit.MILLISECONDS.toNanos(30));
+
+        verify(this.timer).newTimeout(task.capture(), eq(TimeUnit.MILLISECONDS.toNanos(50)), eq(TimeUnit.NANOSECONDS));
+        assertThat(released.isDone(), is(false));
+        task.getValue().run(mock(Timeout.class));
+        assertThat(released.getNow(null), is("failure"));
+    }
+
+    @Test
+    public void testNoDelayWhenSlowerThanSuccess() {
+        this.equalizer.recordSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+
+        final var released = this.equalizer.release("failure", TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertThat(released.getNow(null), is("failure"));
+        verify(this.timer, never()).newTimeout(any(), anyLong(), any());
+    }
+
+    @Test
+    public void testSamplesAreCapped() {
+        this.equalizer.recordSuccess(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(this.equalizer.sampleNanos(), is(TimeUnit.MILLISECONDS.toNanos(500)));
+    }
+
+    @Test
+    public void testSamplesOfLatestSuccesses() {
+        for (int i = 1; i <= 8; i++) {
+            this.equalizer.recordSuccess(i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(this.equalizer.sampleNanos() > 4, is(true));
+        }
+    }
+
+    @Test
+    public void testSaturatedWhileTooManyPending() throws Exception {
+        this.equalizer.recordSuccess(TimeUnit.MILLISECONDS.toNanos(80));
+        final var task = ArgumentCaptor.forClass(TimerTask.class);
+
+        final var first = this.equalizer.release("first", 0);
+        assertThat(this.equalizer.isSaturated(), is(false));
+        final var second = this.equalizer.release("second", 0);
+        assertThat(this.equalizer.isSaturated(), is(true));
+
+        // never released early
+        assertThat(first.isDone() || second.isDone(), is(false));
+        verify(this.timer, times(2)).newTimeout(task.capture(), anyLong(), any());
+        task.getAllValues().get(0).run(mock(Timeout.class));
+        assertThat(first.getNow(null), is("first"));
+        assertThat(this.equalizer.isSaturated(), is(false));
+    }
+}
@@ -0,0 +1,119 @@
+package authentication.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static protocol.SmppError.SMPP_3001;
+import static protocol.SmppError.SMPP_3003;
+import static protocol.SmppError.SMPP_3006;
+
+public class HeavyHitterTrackerTest {
+    private final MutableClock clock = new MutableClock();
+    private final HeavyHitterTracker tracker = new HeavyHitterTracker(10, Duration.ofMinutes(5), 5, this.clock);
+
+    @Test
+    public void testTracksPerErrorAndDimension() {
+        this.tracker.record(SMPP_3001, "unknown", "1.2.3.4");
+        this.tracker.record(SMPP_3001, "unknown", "1.2.3.5");
+        this.tracker.record(SMPP_3003, "system_id", "1.2.3.4");
+
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.SYSTEM_ID, 1).get(0).key(), is("unknown"));
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.SYSTEM_ID, 1).get(0).count(), is(2L));
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.IP, 5).size(), is(2));
+        assertThat(this.tracker.top(SMPP_3003, HeavyHitterDimension.SYSTEM_ID, 1).get(0).key(), is("system_id"));
+    }
+
+    @Test
+    public void testWindowSlides() {
+        this.tracker.record(SMPP_3001, "unknown", "1.2.3.4");
+        this.clock.advance(Duration.ofMinutes(2));
+        this.tracker.record(SMPP_3001, "unknown", "1.2.3.4");
+
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.SYSTEM_ID, 1).get(0).count(), is(2L));
+
+        this.clock.advance(Duration.ofMinutes(4));
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.SYSTEM_ID, 1).get(0).count(), is(1L));
+
+        this.clock.advance(Duration.ofMinutes(2));
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.SYSTEM_ID, 1), is(empty()));
+    }
+
+    @Test
+    public void testGauges() {
+        final var registry = new SimpleMeterRegistry();
+        this.tracker.registerGauges(registry, 2);
+        this.tracker.record(SMPP_3001, "unknown", "1.2.3.4");
+        this.tracker.record(SMPP_3001, "unknown", "1.2.3.4");
+        this.tracker.record(SMPP_3001, "other", "1.2.3.4");
+
+        final var first = registry.get("authentication.heavy_hitters")
+                .tags("error", SMPP_3001.code, "dimension", "system_id", "rank", "1")
+                .gauge();
+        final var second = registry.get("authentication.heavy_hitters")
+                .tags("error", SMPP_3001.code, "dimension", "system_id", "rank", "2")
+                .gauge();
+
+        assertThat(first.value(), is(2.0));
+        assertThat(second.value(), is(1.0));
+        assertThat(registry.getMeters().size(), is(HeavyHitterTracker.TRACKED_ERRORS.size() * 2 * 2));
+        assertThat(registry.find("authentication.heavy_hitters").tag("error", SMPP_3006.code).gauges(), is(empty()));
+    }
+
+    @Test
+    public void testUntrackedErrorsAreIgnored() {
+        this.tracker.record(SMPP_3006, "system_id", "1.2.3.4");
+
+        assertThat(this.tracker.top(SMPP_3006, HeavyHitterDimension.SYSTEM_ID, 1), is(empty()));
+    }
+
+    @Test
+    public void testConcurrentOffersAcrossBuckets() throws Exception {
+        final var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    this.tracker.record(SMPP_3001, "unknown", null);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(this.tracker.top(SMPP_3001, HeavyHitterDimension.SYSTEM_ID, 1).get(0).count(), is(40_000L));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2021-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
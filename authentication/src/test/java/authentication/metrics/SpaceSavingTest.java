@@ -0,0 +1,90 @@
+package authentication.metrics;
+
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class SpaceSavingTest {
+
+    @Test
+    public void testExactCountsWithinCapacity() {
+        final var sketch = new SpaceSaving(3);
+        sketch.offer("a");
+        sketch.offer("b");
+        sketch.offer("a");
+        sketch.offer("c");
+        sketch.offer("a");
+        sketch.offer("b");
+
+        final var top = sketch.top(3);
+
+        assertThat(top.stream().map(HeavyHitter::key).collect(Collectors.toList()), contains("a", "b", "c"));
+        assertThat(top.get(0).count(), is(3L));
+        assertThat(top.get(0).error(), is(0L));
+    }
+
+    @Test
+    public void testHeavyHitterSurvivesNoise() {
+        final var sketch = new SpaceSaving(10);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer("noise-" + i);
+            if ((i % 4) == 0) {
+                sketch.offer("attacker");
+            }
+        }
+
+        final var top = sketch.top(1);
+
+        assertThat(top, hasSize(1));
+        assertThat(top.get(0).key(), is("attacker"));
+        assertThat(top.get(0).count(), greaterThanOrEqualTo(2500L));
+    }
+
+    @Test
+    public void testCapacityIsFixed() {
+        final var sketch = new SpaceSaving(5);
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer(String.valueOf(i));
+        }
+
+        assertThat(sketch.top(100), hasSize(5));
+    }
+
+    @Test
+    public void testReplacedKeyInheritsLowestCount() {
+        final var sketch = new SpaceSaving(2);
+        for (int i = 0; i < 5; i++) {
+            sketch.offer("a");
+        }
+        sketch.offer("b");
+        sketch.offer("b");
+
+        sketch.offer("c");
+        sketch.offer("d");
+
+        // c replaced b with count 2, d then replaced c with count 3
+        final var top = sketch.top(2);
+        assertThat(top.stream().map(HeavyHitter::key).collect(Collectors.toList()), contains("a", "d"));
+        assertThat(top.get(0).count(), is(5L));
+        assertThat(top.get(1).count(), is(4L));
+        assertThat(top.get(1).error(), is(3L));
+    }
+
+    @Test
+    public void testClear() {
+        final var sketch = new SpaceSaving(2);
+        sketch.offer("a");
+        sketch.offer("b");
+        sketch.clear();
+        sketch.offer("c");
+
+        assertThat(sketch.top(2), hasSize(1));
+        assertThat(sketch.top(2).get(0).count(), is(1L));
+    }
+}
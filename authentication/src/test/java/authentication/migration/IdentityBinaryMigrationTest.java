@@ -0,0 +1,128 @@
+package authentication.migration;
+
+import authentication.cache.PackedIdentity;
+
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.ItemCollection;
+import com.amazonaws.services.dynamodbv2.document.ScanOutcome;
+import com.amazonaws.services.dynamodbv2.document.internal.IteratorSupport;
+import com.amazonaws.services.dynamodbv2.document.Table;
+import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class IdentityBinaryMigrationTest {
+    private final Table table = Mockito.mock(Table.class);
+
+    private final Item item = new Item().withPrimaryKey("system_id", "system_id")
+            .withString("password_hash", "hash")
+            .withString("customer_id", "customer_id")
+            .withString("ip_allow_list", "1.2.3.4/32, 2001:db8::/32");
+
+    @Test
+    public void testMigrate() {
+        final var outcome = new IdentityBinaryMigration(this.table, false, 0).migrate(this.item);
+
+        final var spec = this.capturedUpdate();
+        assertThat(outcome, is(IdentityBinaryMigration.Outcome.MIGRATED));
+        assertThat(spec.getUpdateExpression(), is("set identity_bin = :bin"));
+        assertThat(spec.getConditionExpression(), containsString("ip_allow_list = :ips"));
+
+        final var identity = PackedIdentity.fromAttribute("system_id", (byte[]) spec.getValueMap().get(":bin")).get();
+        assertThat(identity.customerId(), is("customer_id"));
+        assertThat(identity.passwordHash(), is("hash"));
+        assertThat(identity.isIpAllowed("1.2.3.4"), is(true));
+        assertThat(identity.isIpAllowed("2001:db8::1"), is(true));
+        assertThat(identity.isIpAllowed("1.2.3.5"), is(false));
+    }
+
+    @Test
+    public void testMigrateAndRemoveTextAttributes() {
+        final var outcome = new IdentityBinaryMigration(this.table, true, 0).migrate(this.item);
+
+        assertThat(outcome, is(IdentityBinaryMigration.Outcome.MIGRATED));
+        assertThat(this.capturedUpdate().getUpdateExpression(),
+                is("set identity_bin = :bin remove customer_id, password_hash, ip_allow_list"));
+    }
+
+    @Test
+    public void testMigrateWithoutIpAllowList() {
+        final var item = this.item.removeAttribute("ip_allow_list");
+
+        new IdentityBinaryMigration(this.table, false, 0).migrate(item);
+
+        final var spec = this.capturedUpdate();
+        assertThat(spec.getConditionExpression(), containsString("attribute_not_exists(ip_allow_list)"));
+        assertThat(spec.getValueMap().containsKey(":ips"), is(false));
+        final var identity = PackedIdentity.fromAttribute("system_id", (byte[]) spec.getValueMap().get(":bin")).get();
+        assertThat(identity.isIpAllowed("1.2.3.5"), is(true));
+    }
+
+    @Test
+    public void testSkipUpToDateAndBinaryOnlyItems() {
+        final var migration = new IdentityBinaryMigration(this.table, false, 0);
+        migration.migrate(this.item);
+        final var identityBin = (byte[]) this.capturedUpdate().getValueMap().get(":bin");
+        Mockito.reset(this.table);
+
+        assertThat(migration.migrate(this.item.withBinary("identity_bin", identityBin)),
+                is(IdentityBinaryMigration.Outcome.SKIPPED));
+        assertThat(migration.migrate(new Item().withPrimaryKey("system_id", "system_id")
+                .withBinary("identity_bin", identityBin)), is(IdentityBinaryMigration.Outcome.SKIPPED));
+        verify(this.table, never()).updateItem(any(UpdateItemSpec.class));
+    }
+
+    @Test
+    public void testChangedDuringMigration() {
+        Mockito.doThrow(new ConditionalCheckFailedException("changed"))
+                .when(this.table)
+                .updateItem(any(UpdateItemSpec.class));
+
+        final var outcome = new IdentityBinaryMigration(this.table, false, 0).migrate(this.item);
+
+        assertThat(outcome, is(IdentityBinaryMigration.Outcome.CHANGED));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testItemsPerSecond() {
+        final ItemCollection<ScanOutcome> items = Mockito.mock(ItemCollection.class);
+        final IteratorSupport<Item, ScanOutcome> iterator = Mockito.mock(IteratorSupport.class);
+        Mockito.doReturn(true, true, true, true, true, false).when(iterator).hasNext();
+        Mockito.doReturn(this.item).when(iterator).next();
+        Mockito.doReturn(iterator).when(items).iterator();
+        final var scanSpec = ArgumentCaptor.forClass(ScanSpec.class);
+        Mockito.doReturn(items).when(this.table).scan(scanSpec.capture());
+
+        final var start = System.nanoTime();
+        final var outcomes = new IdentityBinaryMigration(this.table, false, 20).run();
+
+        // the fifth item is due 200 ms after the first
+        assertThat(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200), is(true));
+        assertThat(outcomes.get(IdentityBinaryMigration.Outcome.MIGRATED), is(5L));
+        assertThat(scanSpec.getValue().getMaxPageSize(), is(20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeItemsPerSecond() {
+        new IdentityBinaryMigration(this.table, false, -1);
+    }
+
+    private UpdateItemSpec capturedUpdate() {
+        final var spec = ArgumentCaptor.forClass(UpdateItemSpec.class);
+        verify(this.table).updateItem(spec.capture());
+        return spec.getValue();
+    }
+}
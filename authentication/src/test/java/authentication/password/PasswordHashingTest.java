@@ -0,0 +1,75 @@
+package authentication.password;
+
+import protocol.configuration.ImmutableIdentityPasswordHashConfiguration;
+import protocol.configuration.PasswordHashAlgorithm;
+
+import java.util.Optional;
+
+import org.junit.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class PasswordHashingTest {
+    private final String bcryptHash = BCrypt.hashpw("password", BCrypt.gensalt(5));
+    private final String pbkdf2Hash = new Pbkdf2PasswordHasher(1000).hash("password");
+
+    private final PasswordHashing bcryptTarget = PasswordHashing.fromConfiguration(Optional.of(
+            ImmutableIdentityPasswordHashConfiguration.builder().algorithm(PasswordHashAlgorithm.BCRYPT).cost(4).build()));
+    private final PasswordHashing pbkdf2Target = PasswordHashing.fromConfiguration(Optional.of(
+            ImmutableIdentityPasswordHashConfiguration.builder().algorithm(PasswordHashAlgorithm.PBKDF2).cost(1000).build()));
+
+    @Test
+    public void testMatchesEveryAlgorithm() {
+        assertThat(this.bcryptTarget.matches("password", this.bcryptHash), is(true));
+        assertThat(this.bcryptTarget.matches("password", this.pbkdf2Hash), is(true));
+        assertThat(this.bcryptTarget.matches("incorrect", this.bcryptHash), is(false));
+        assertThat(this.bcryptTarget.matches("incorrect", this.pbkdf2Hash), is(false));
+    }
+
+    @Test
+    public void testUnknownHashDoesNotMatch() {
+        assertThat(this.bcryptTarget.matches("password", "password"), is(false));
+    }
+
+    @Test
+    public void testNeedsRehashForDifferentCost() {
+        assertThat(this.bcryptTarget.needsRehash(this.bcryptHash), is(true));
+        assertThat(this.bcryptTarget.needsRehash(BCrypt.hashpw("password", BCrypt.gensalt(4))), is(false));
+    }
+
+    @Test
+    public void testNeedsRehashForDifferentAlgorithm() {
+        assertThat(this.bcryptTarget.needsRehash(this.pbkdf2Hash), is(true));
+        assertThat(this.pbkdf2Target.needsRehash(this.bcryptHash), is(true));
+        assertThat(this.pbkdf2Target.needsRehash(this.pbkdf2Hash), is(false));
+    }
+
+    @Test
+    public void testNoRehashWithoutConfiguration() {
+        final var passwordHashing = PasswordHashing.fromConfiguration(Optional.empty());
+
+        assertThat(passwordHashing.needsRehash(this.bcryptHash), is(false));
+        assertThat(passwordHashing.needsRehash(this.pbkdf2Hash), is(false));
+    }
+
+    @Test
+    public void testHashWithTarget() {
+        final var hash = this.pbkdf2Target.hash("password");
+
+        assertThat(hash, startsWith("$pbkdf2-sha256$1000$"));
+        assertThat(this.pbkdf2Target.matches("password", hash), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBcryptCostBelowRange() {
+        ImmutableIdentityPasswordHashConfiguration.builder().algorithm(PasswordHashAlgorithm.BCRYPT).cost(3).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBcryptCostAboveRange() {
+        ImmutableIdentityPasswordHashConfiguration.builder().algorithm(PasswordHashAlgorithm.BCRYPT).cost(32).build();
+    }
+}
@@ -0,0 +1,197 @@
+package authentication.replica;
+
+import protocol.configuration.ImmutableIdentityDynamoDBReplicaConfiguration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.dynamodbv2.document.DynamoDB;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class ReplicaRouterTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final Map<String, Long> latencies = new HashMap<>();
+    private final Set<String> failing = new HashSet<>();
+
+    @Test
+    public void testRoutesToFastestReplica() {
+        final var router = this.router(replica("near", 0), replica("far", 0));
+        this.latencies.put("near", 2_000_000L);
+        this.latencies.put("far", 40_000_000L);
+
+        // both replicas are measured first
+        this.request(router);
+        this.request(router);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(this.request(router), is("near"));
+        }
+    }
+
+    @Test
+    public void testLowerPriorityIsPreferred() {
+        final var router = this.router(replica("fallback", 1), replica("primary", 0));
+        this.latencies.put("fallback", 1_000_000L);
+        this.latencies.put("primary", 30_000_000L);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(this.request(router), is("primary"));
+        }
+    }
+
+    @Test
+    public void testFailoverSkipsUnhealthyReplica() {
+        final var router = this.router(replica("primary", 0), replica("fallback", 1));
+        this.failing.add("primary");
+
+        assertThat(this.request(router), is("fallback"));
+        this.failing.remove("primary");
+        // skipped while unhealthy
+        assertThat(this.request(router), is("fallback"));
+
+        this.nanoTime.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(this.request(router), is("primary"));
+    }
+
+    @Test
+    public void testUnhealthyReplicaIsLastResort() {
+        final var router = this.router(replica("primary", 0), replica("fallback", 1));
+        this.failing.add("primary");
+        assertThat(this.request(router), is("fallback"));
+
+        this.failing.clear();
+        this.failing.add("fallback");
+        assertThat(this.request(router), is("primary"));
+    }
+
+    @Test
+    public void testAllReplicasFailing() {
+        final var router = this.router(replica("primary", 0), replica("fallback", 0));
+        this.failing.add("primary");
+        this.failing.add("fallback");
+
+        final var exception = assertThrows(SdkClientException.class, () -> this.request(router));
+        assertThat(exception.getSuppressed().length, is(1));
+    }
+
+    @Test
+    public void testClientErrorDoesNotFailOver() {
+        final var primary = replica("primary", 0);
+        final var router = this.router(primary, replica("fallback", 1));
+
+        assertThrows(ConditionalCheckFailedException.class, () -> router.execute(replica -> {
+            throw new ConditionalCheckFailedException("condition");
+        }));
+        assertThat(primary.isHealthy(this.nanoTime.get()), is(true));
+    }
+
+    @Test
+    public void testIsReplicaFailure() {
+        final var throttling = new AmazonServiceException("throttled");
+        throttling.setErrorType(AmazonServiceException.ErrorType.Client);
+        throttling.setErrorCode("ProvisionedThroughputExceededException");
+        final var serverError = new AmazonServiceException("internal");
+        serverError.setErrorType(AmazonServiceException.ErrorType.Service);
+
+        assertThat(ReplicaRouter.isReplicaFailure(throttling), is(true));
+        assertThat(ReplicaRouter.isReplicaFailure(serverError), is(true));
+        assertThat(ReplicaRouter.isReplicaFailure(new SdkClientException("timeout")), is(true));
+        assertThat(ReplicaRouter.isReplicaFailure(new ConditionalCheckFailedException("condition")), is(false));
+        assertThat(ReplicaRouter.isReplicaFailure(new IllegalStateException()), is(false));
+    }
+
+    @Test
+    public void testWritesOnlyGoToHomeReplica() {
+        final var router = this.router(replica("home", 1), replica("near", 0));
+        this.failing.add("home");
+
+        assertThat(router.home().name(), is("home"));
+        assertThrows(SdkClientException.class, () -> router.executeOnHome(replica -> {
+            this.nanoTime.addAndGet(1_000_000L);
+            if (this.failing.contains(replica.name())) {
+                throw new SdkClientException("connect timed out");
+            }
+            return replica.name();
+        }));
+        assertThat(this.request(router), is("near"));
+    }
+
+    @Test
+    public void testRequestsCappedAtConnections() throws Exception {
+        final var primary = new DynamoDBReplica("primary", mock(DynamoDB.class), "tableName", 0, 0.2, 1);
+        final var router = new ReplicaRouter(List.of(primary), Duration.ofSeconds(30), 0, Duration.ofMillis(100),
+                this.nanoTime::get);
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var holder = new Thread(() -> router.executeOn(primary, replica -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        holder.start();
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        // waiting for the only connection is not a failure of the replica
+        assertThrows(IllegalStateException.class, () -> this.request(router));
+        assertThat(primary.isHealthy(this.nanoTime.get()), is(true));
+
+        release.countDown();
+        holder.join();
+        assertThat(this.request(router), is("primary"));
+    }
+
+    @Test
+    public void testDistinctReplicas() {
+        assertThrows(IllegalArgumentException.class, () -> this.router(replica("same", 0), replica("same", 1)));
+
+        final var first = ImmutableIdentityDynamoDBReplicaConfiguration.builder()
+                .local(true)
+                .endpoint("http://localhost:4566")
+                .region("us-east-1")
+                .tableName("tableName")
+                .build();
+        final var second =
+                ImmutableIdentityDynamoDBReplicaConfiguration.copyOf(first).withEndpoint("http://localhost:4567");
+        final var remote = ImmutableIdentityDynamoDBReplicaConfiguration.copyOf(first).withLocal(false);
+        assertThat(ReplicaRouter.name(first), is("http://localhost:4566/tableName"));
+        assertThat(ReplicaRouter.name(second), is("http://localhost:4567/tableName"));
+        assertThat(ReplicaRouter.name(remote), is("us-east-1/tableName"));
+    }
+
+    private ReplicaRouter router(final DynamoDBReplica... replicas) {
+        return new ReplicaRouter(List.of(replicas), Duration.ofSeconds(30), 0, Duration.ofSeconds(1),
+                this.nanoTime::get);
+    }
+
+    private String request(final ReplicaRouter router) {
+        return router.execute(replica -> {
+            this.nanoTime.addAndGet(this.latencies.getOrDefault(replica.name(), 1_000_000L));
+            if (this.failing.contains(replica.name())) {
+                throw new SdkClientException("Unable to execute HTTP request: connect timed out");
+            }
+            return replica.name();
+        });
+    }
+
+    private static DynamoDBReplica replica(final String name, final int priority) {
+        return new DynamoDBReplica(name, mock(DynamoDB.class), "tableName", priority, 0.2, 50);
+    }
+}
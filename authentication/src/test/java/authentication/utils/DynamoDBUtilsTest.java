@@ -29,6 +29,29 @@ public class DynamoDBUtilsTest {
                 is(equalTo(this.identityConfiguration.dynamoDBConfiguration().retries())));
     }
 
+    @Test
+    public void testGetClientConfigurationTimeouts() {
+        final var clientConfiguration = DynamoDBUtils.getClientConfiguration(this.identityConfiguration);
+
+        assertThat(clientConfiguration.getConnectionTimeout(), is(500));
+        assertThat(clientConfiguration.getSocketTimeout(), is(1000));
+        assertThat(clientConfiguration.getRequestTimeout(), is(1000));
+        assertThat(clientConfiguration.getClientExecutionTimeout(), is(3000));
+    }
+
+    @Test
+    public void testGetClientConfigurationWithReplicas() {
+        final var withReplicas = ImmutableIdentityConfiguration.copyOf(this.identityConfiguration)
+                .withDynamoDBConfiguration(ImmutableIdentityDynamoDBConfiguration
+                        .copyOf(this.identityConfiguration.dynamoDBConfiguration())
+                        .withRetries(3)
+                        .withReplicas(DynamoDBUtils.primaryReplica(this.identityConfiguration)));
+
+        final var clientConfiguration = DynamoDBUtils.getClientConfiguration(withReplicas);
+
+        assertThat(clientConfiguration.getRetryPolicy().getMaxErrorRetry(), is(1));
+    }
+
     @Test
     public void testGetEndpointConfiguration() {
         final var endpointConfiguration = DynamoDBUtils.getEndpointConfiguration(this.identityConfiguration);
@@ -14,7 +14,8 @@ public enum SmppError {
     SMPP_3002("SMPP-3002", SmppError.AUTHENTICATION, "ip address does not match with ip-allow-list"),
     SMPP_3003("SMPP-3003", SmppError.AUTHENTICATION, "invalid password"),
     SMPP_3004("SMPP-3004", SmppError.AUTHENTICATION, "unable to connect to identity datastore"),
-    SMPP_3005("SMPP-3005", SmppError.AUTHENTICATION, "necessary credentials are missing");
+    SMPP_3005("SMPP-3005", SmppError.AUTHENTICATION, "necessary credentials are missing"),
+    SMPP_3006("SMPP-3006", SmppError.AUTHENTICATION, "concurrent session limit exceeded");
 
     private static final Map<String, SmppError> BY_CODE = new HashMap<>();
     private static final String AUTHENTICATION = "authentication";
@@ -3,6 +3,8 @@ package protocol.authentication;
 import protocol.AuthenticationResponse;
 import protocol.UnsuccessfulResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.vavr.control.Either;
 
 public interface AuthenticationClient {
@@ -17,4 +19,15 @@ public interface AuthenticationClient {
     Either<UnsuccessfulResponse, AuthenticationResponse> authenticate(final String systemId,
             final String passwordHash,
             final String remoteIp);
+
+    /**
+     * Checks user credentials without blocking the caller, e.g. a Netty event loop
+     * @param systemId
+     * @param passwordHash
+     * @param remoteIp
+     * @return future of either AuthenticationResponse or UnsuccessfulResponse
+     */
+    CompletableFuture<Either<UnsuccessfulResponse, AuthenticationResponse>> authenticateAsync(final String systemId,
+            final String passwordHash,
+            final String remoteIp);
 }
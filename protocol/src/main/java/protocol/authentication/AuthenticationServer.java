@@ -4,6 +4,8 @@ import protocol.AuthenticationRequest;
 import protocol.AuthenticationResponse;
 import protocol.UnsuccessfulResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.vavr.control.Either;
 
 public interface AuthenticationServer {
@@ -14,4 +16,12 @@ public interface AuthenticationServer {
      * @return either AuthenticationResponse or UnsuccessfulResponse
      */
     Either<UnsuccessfulResponse, AuthenticationResponse> authenticate(final AuthenticationRequest authenticationRequest);
+
+    /**
+     * Checks user credentials on the configured authentication executor, without blocking the caller
+     * @param authenticationRequest
+     * @return future of either AuthenticationResponse or UnsuccessfulResponse
+     */
+    CompletableFuture<Either<UnsuccessfulResponse, AuthenticationResponse>> authenticateAsync(
+            final AuthenticationRequest authenticationRequest);
 }
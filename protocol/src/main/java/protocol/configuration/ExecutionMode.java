@@ -0,0 +1,11 @@
+package protocol.configuration;
+
+/**
+ * Threads on which the blocking authentications are executed
+ */
+public enum ExecutionMode {
+    // fixed pool of platform threads
+    PLATFORM,
+    // one virtual thread per authentication, the lookups in flight are capped at the connections of each replica
+    VIRTUAL
+}
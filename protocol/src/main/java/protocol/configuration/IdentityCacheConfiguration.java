@@ -0,0 +1,17 @@
+package protocol.configuration;
+
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+@Immutable
+public abstract class IdentityCacheConfiguration {
+
+    public abstract long ttlSeconds();
+
+    public abstract int maxEntries();
+
+    @Default
+    public IdentityCacheType type() {
+        return IdentityCacheType.ON_HEAP;
+    }
+}
@@ -0,0 +1,11 @@
+package protocol.configuration;
+
+/**
+ * Storage of the cached identities
+ */
+public enum IdentityCacheType {
+    // identity objects on the heap
+    ON_HEAP,
+    // packed records in direct memory, for millions of accounts without the GC cost
+    OFF_HEAP
+}
@@ -1,5 +1,9 @@
 package protocol.configuration;
 
+import java.util.Optional;
+
+import org.immutables.value.Value.Check;
+import org.immutables.value.Value.Default;
 import org.immutables.value.Value.Immutable;
 
 @Immutable
@@ -7,4 +11,39 @@ public abstract class IdentityConfiguration {
 
     public abstract IdentityDynamoDBConfiguration dynamoDBConfiguration();
 
+    // optional target parameters, stored hashes with different parameters are rehashed on login
+    public abstract Optional<IdentityPasswordHashConfiguration> passwordHashConfiguration();
+
+    // identities are only cached when configured
+    public abstract Optional<IdentityCacheConfiguration> identityCacheConfiguration();
+
+    // cached identities are only invalidated across nodes when configured, requires the identity cache
+    public abstract Optional<IdentityInvalidationConfiguration> invalidationConfiguration();
+
+    // failed authentications are only delayed to the latency of successful ones when configured
+    public abstract Optional<LatencyEqualizationConfiguration> latencyEqualizationConfiguration();
+
+    @Default
+    public ExecutionMode executionMode() {
+        return ExecutionMode.PLATFORM;
+    }
+
+    // size of the pool in PLATFORM execution mode
+    @Default
+    public int platformThreads() {
+        return 64;
+    }
+
+    // virtual threads pinned for longer than this are reported in VIRTUAL execution mode
+    @Default
+    public long pinnedThresholdMillis() {
+        return 20;
+    }
+
+    @Check
+    protected void check() {
+        if (this.invalidationConfiguration().isPresent() && this.identityCacheConfiguration().isEmpty()) {
+            throw new IllegalStateException("Identity invalidation requires the identity cache");
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package protocol.configuration;
 
+import java.util.List;
+
+import org.immutables.value.Value.Check;
+import org.immutables.value.Value.Default;
 import org.immutables.value.Value.Immutable;
 
 @Immutable
@@ -14,4 +18,68 @@ public abstract class IdentityDynamoDBConfiguration {
     public abstract String region();
 
     public abstract String tableName();
+
+    // replicas of a global table, without replicas the table above is the only one. The first replica is the home
+    // replica, writes only go there
+    public abstract List<IdentityDynamoDBReplicaConfiguration> replicas();
+
+    // retries per replica when replicas are configured, a failed request is retried on the next replica instead
+    @Default
+    public int replicaRetries() {
+        return 1;
+    }
+
+    @Default
+    public int connectionTimeoutMillis() {
+        return 500;
+    }
+
+    @Default
+    public int socketTimeoutMillis() {
+        return 1000;
+    }
+
+    // timeout of a single HTTP request
+    @Default
+    public int requestTimeoutMillis() {
+        return 1000;
+    }
+
+    // connections of the client of each replica, requests beyond them wait for a free connection
+    @Default
+    public int maxConnections() {
+        return 50;
+    }
+
+    // timeout of a request including its retries
+    @Default
+    public int clientExecutionTimeoutMillis() {
+        return 3000;
+    }
+
+    // weight of the latest request in the latency average of a replica
+    @Default
+    public double latencyEwmaAlpha() {
+        return 0.2;
+    }
+
+    // a failed replica is skipped for this long
+    @Default
+    public long unhealthySeconds() {
+        return 30;
+    }
+
+    // share of the requests sent to another healthy replica of the same priority to keep its latency current
+    @Default
+    public double probeRatio() {
+        return 0.01;
+    }
+
+    @Check
+    protected void check() {
+        if (this.maxConnections() < 1) {
+            throw new IllegalStateException("The DynamoDB client needs at least one connection: "
+                    + this.maxConnections());
+        }
+    }
 }
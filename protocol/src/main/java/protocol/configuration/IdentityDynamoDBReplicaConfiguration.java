@@ -0,0 +1,23 @@
+package protocol.configuration;
+
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+@Immutable
+public abstract class IdentityDynamoDBReplicaConfiguration {
+
+    public abstract boolean local();
+
+    // only used for a local DynamoDB
+    public abstract String endpoint();
+
+    public abstract String region();
+
+    public abstract String tableName();
+
+    // lower is preferred, a replica only serves reads while every replica with a lower priority is unhealthy
+    @Default
+    public int priority() {
+        return 0;
+    }
+}
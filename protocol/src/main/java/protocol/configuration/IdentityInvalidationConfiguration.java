@@ -0,0 +1,52 @@
+package protocol.configuration;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import org.immutables.value.Value.Check;
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+@Immutable
+public abstract class IdentityInvalidationConfiguration {
+
+    public abstract InvalidationTransportType transport();
+
+    // address of the interface the nodes reach each other on, required for UDP
+    public abstract Optional<String> bindAddress();
+
+    // local UDP port, also the port of the multicast group
+    public abstract int port();
+
+    // e.g. 239.1.1.1, joined on the interface of the bind address, alternative to listing every node as a peer
+    public abstract Optional<String> multicastGroup();
+
+    // host:port of the other nodes for unicast delivery
+    public abstract List<String> peers();
+
+    // base64 of at least 16 bytes, the same on every node, authenticates the UDP datagrams
+    public abstract Optional<String> sharedSecret();
+
+    // invalidations are collected and de-duplicated for this long before they are broadcast
+    @Default
+    public long batchMillis() {
+        return 50;
+    }
+
+    @Check
+    protected void check() {
+        if (this.transport() != InvalidationTransportType.UDP) {
+            return;
+        }
+        if (this.bindAddress().isEmpty()) {
+            throw new IllegalStateException("The UDP invalidation transport requires a bind address");
+        }
+        if (this.multicastGroup().isPresent() && !this.peers().isEmpty()) {
+            throw new IllegalStateException("The UDP invalidation transport takes a multicast group or peers");
+        }
+        if (this.sharedSecret().map(secret -> Base64.getDecoder().decode(secret).length).orElse(0) < 16) {
+            throw new IllegalStateException("The UDP invalidation transport requires a shared secret of 16 bytes");
+        }
+    }
+}
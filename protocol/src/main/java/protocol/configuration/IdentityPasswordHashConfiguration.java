@@ -0,0 +1,23 @@
+package protocol.configuration;
+
+import org.immutables.value.Value.Check;
+import org.immutables.value.Value.Immutable;
+
+@Immutable
+public abstract class IdentityPasswordHashConfiguration {
+
+    public abstract PasswordHashAlgorithm algorithm();
+
+    // log rounds for BCRYPT, iterations for PBKDF2
+    public abstract int cost();
+
+    @Check
+    protected void check() {
+        if ((this.algorithm() == PasswordHashAlgorithm.BCRYPT) && ((this.cost() < 4) || (this.cost() > 31))) {
+            throw new IllegalStateException("The BCRYPT cost must be between 4 and 31: " + this.cost());
+        }
+        if (this.cost() < 1) {
+            throw new IllegalStateException("The password hash cost must be positive: " + this.cost());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package protocol.configuration;
+
+/**
+ * Transports for broadcasting identity invalidations between proxy nodes
+ */
+public enum InvalidationTransportType {
+    // UDP datagrams to a multicast group or a list of peers
+    UDP
+}
@@ -0,0 +1,42 @@
+package protocol.configuration;
+
+import org.immutables.value.Value.Check;
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+@Immutable
+public abstract class LatencyEqualizationConfiguration {
+
+    // latencies of the latest successful authentications the delays are drawn from
+    @Default
+    public int sampleSize() {
+        return 1024;
+    }
+
+    @Default
+    public long maxDelayMillis() {
+        return 1000;
+    }
+
+    // resolution of the timer wheel, every delay is rounded up to a tick
+    @Default
+    public long tickMillis() {
+        return 10;
+    }
+
+    // new requests are rejected before their lookup while this many failures wait for their release
+    @Default
+    public long maxPendingDelays() {
+        return 100_000;
+    }
+
+    @Check
+    protected void check() {
+        if (this.sampleSize() < 1) {
+            throw new IllegalStateException("At least one latency sample is required: " + this.sampleSize());
+        }
+        if (this.tickMillis() < 1) {
+            throw new IllegalStateException("The timer tick must be at least 1 ms: " + this.tickMillis());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package protocol.configuration;
+
+/**
+ * Supported algorithms for the stored password hashes
+ */
+public enum PasswordHashAlgorithm {
+    BCRYPT,
+    PBKDF2
+}
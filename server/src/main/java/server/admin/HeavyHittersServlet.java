@@ -0,0 +1,75 @@
+package server.admin;
+
+import protocol.SmppError;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import authentication.metrics.HeavyHitter;
+import authentication.metrics.HeavyHitterDimension;
+import authentication.metrics.HeavyHitterTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Builder;
+import lombok.NonNull;
+
+/**
+ * Admin endpoint listing the system_ids and IPs with the most failed authentications per error code, e.g.
+ * {@code GET /heavy-hitters?limit=10}
+ */
+@Builder
+public class HeavyHittersServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final String LIMIT_PARAMETER = "limit";
+
+    private final transient @NonNull HeavyHitterTracker heavyHitterTracker;
+    private final transient @NonNull ObjectMapper objectMapper;
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final int limit;
+        try {
+            final var limitParameter = request.getParameter(LIMIT_PARAMETER);
+            limit = (limitParameter == null) ? DEFAULT_LIMIT : Integer.parseInt(limitParameter);
+        } catch (final NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "limit must be a number");
+            return;
+        }
+        if (limit < 1) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "limit must be positive");
+            return;
+        }
+
+        final Map<String, Map<String, List<Map<String, Object>>>> heavyHitters = new LinkedHashMap<>();
+        for (final SmppError error : HeavyHitterTracker.TRACKED_ERRORS) {
+            final Map<String, List<Map<String, Object>>> dimensions = new LinkedHashMap<>();
+            for (final HeavyHitterDimension dimension : HeavyHitterDimension.values()) {
+                dimensions.put(dimension.tag, this.heavyHitterTracker.top(error, dimension, limit)
+                        .stream()
+                        .map(HeavyHittersServlet::toJson)
+                        .collect(Collectors.toList()));
+            }
+            heavyHitters.put(error.code, dimensions);
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        this.objectMapper.writeValue(response.getOutputStream(), heavyHitters);
+    }
+
+    private static Map<String, Object> toJson(final HeavyHitter heavyHitter) {
+        final Map<String, Object> json = new LinkedHashMap<>();
+        json.put("key", heavyHitter.key());
+        json.put("count", heavyHitter.count());
+        json.put("error", heavyHitter.error());
+        return json;
+    }
+}
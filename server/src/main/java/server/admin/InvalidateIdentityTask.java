@@ -0,0 +1,32 @@
+package server.admin;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+import authentication.invalidation.IdentityInvalidationBus;
+import io.dropwizard.servlets.tasks.Task;
+import lombok.NonNull;
+
+/**
+ * Admin task dropping identities from the cache of every node after their password or ip_allow_list changed, e.g.
+ * {@code POST /tasks/invalidate-identity?system_id=a&system_id=b}
+ */
+public class InvalidateIdentityTask extends Task {
+
+    private static final String SYSTEM_ID_PARAMETER = "system_id";
+
+    private final IdentityInvalidationBus invalidationBus;
+
+    public InvalidateIdentityTask(final @NonNull IdentityInvalidationBus invalidationBus) {
+        super("invalidate-identity");
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public void execute(final Map<String, List<String>> parameters, final PrintWriter output) {
+        final var systemIds = parameters.getOrDefault(SYSTEM_ID_PARAMETER, List.of());
+        systemIds.forEach(this.invalidationBus::invalidate);
+        output.println("Invalidated " + systemIds.size() + " identities");
+    }
+}
@@ -1,26 +1,130 @@
 package server.bundle;
 
+import server.admin.HeavyHittersServlet;
+import server.admin.InvalidateIdentityTask;
+import server.lifecycle.ReadinessHealthCheck;
+import server.lifecycle.SmppListener;
+import server.lifecycle.WarmUp;
+import server.smpp.configuration.SmppServerConfiguration;
 import server.smpp.netty.SmppChannelHandler;
+import server.smpp.session.SessionLimiter;
+import server.smpp.tls.TlsHandlerFactory;
 
-import io.netty.bootstrap.ServerBootstrap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.net.ssl.SSLException;
+
+import authentication.AuthenticationServerImpl;
+import authentication.cache.IdentityCache;
+import authentication.cache.OffHeapIdentityCache;
+import authentication.cache.OnHeapIdentityCache;
+import authentication.invalidation.IdentityInvalidationBus;
+import authentication.invalidation.InvalidationTransport;
+import authentication.invalidation.UdpInvalidationTransport;
+import authentication.metrics.HeavyHitterTracker;
+import io.dropwizard.ConfiguredBundle;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import io.micrometer.core.instrument.Metrics;
 import protocol.authentication.AuthenticationClient;
+import protocol.configuration.IdentityCacheConfiguration;
+import protocol.configuration.IdentityCacheType;
 import protocol.configuration.IdentityConfiguration;
+import protocol.configuration.IdentityInvalidationConfiguration;
+import protocol.configuration.ImmutableIdentityCacheConfiguration;
 import protocol.configuration.ImmutableIdentityConfiguration;
 import protocol.configuration.ImmutableIdentityDynamoDBConfiguration;
+import protocol.configuration.ImmutableIdentityDynamoDBReplicaConfiguration;
+import protocol.configuration.ImmutableIdentityInvalidationConfiguration;
+import protocol.configuration.ImmutableIdentityPasswordHashConfiguration;
+import protocol.configuration.ImmutableLatencyEqualizationConfiguration;
 import server.client.AuthenticationClientImpl;
 import server.configuration.SmppProxyConfiguration;
 
-public class SmppServerBundle {
+public class SmppServerBundle implements ConfiguredBundle<SmppProxyConfiguration> {
+
+    // gauges per error code and dimension, the keys themselves are only exposed on the admin endpoint
+    private static final int HEAVY_HITTER_GAUGE_RANKS = 3;
+
+    @Override
+    public void run(final SmppProxyConfiguration configuration, final Environment environment) {
+        final var identityConfig = createIdentityConfig(configuration);
+
+        final var heavyHitterTracker = new HeavyHitterTracker();
+        heavyHitterTracker.registerGauges(Metrics.globalRegistry, HEAVY_HITTER_GAUGE_RANKS);
+        environment.admin()
+                .addServlet("heavy-hitters", HeavyHittersServlet.builder()
+                        .heavyHitterTracker(heavyHitterTracker)
+                        .objectMapper(environment.getObjectMapper())
+                        .build())
+                .addMapping("/heavy-hitters");
 
-    private static ServerBootstrap createServerBootstrap(final SmppProxyConfiguration smppProxyConfiguration) {
-        final var identityConfig = createIdentityConfig(smppProxyConfiguration);
-        final var identityClient = createIdentityClient(identityConfig);
-        final SmppChannelHandler smppChannelHandler = createSmppChannelHandler(identityClient);
-        return new ServerBootstrap().childHandler(smppChannelHandler);
+        final var identityCache = identityConfig.identityCacheConfiguration()
+                .map(SmppServerBundle::createIdentityCache)
+                .orElse(null);
+        // the identity configuration only allows invalidation with an identity cache
+        if (identityConfig.invalidationConfiguration().isPresent()) {
+            final var invalidationBus =
+                    createInvalidationBus(identityConfig.invalidationConfiguration().get(), identityCache);
+            environment.lifecycle().manage(new Managed() {
+                @Override
+                public void start() {
+                    // the bus starts receiving when it is created
+                }
+
+                @Override
+                public void stop() {
+                    invalidationBus.close();
+                }
+            });
+            environment.admin().addTask(new InvalidateIdentityTask(invalidationBus));
+        }
+
+        final var authenticationServer = AuthenticationServerImpl.builder()
+                .config(identityConfig)
+                .heavyHitterTracker(heavyHitterTracker)
+                .identityCache(identityCache)
+                .build();
+        final var identityClient = createIdentityClient(authenticationServer);
+
+        // binds are only accepted after the warm-up
+        final var warmUpConfig = configuration.getWarmUpConfiguration();
+        final var warmUp = ((warmUpConfig != null) && warmUpConfig.enabled())
+                ? WarmUp.builder().authenticationServer(authenticationServer).configuration(warmUpConfig).build()
+                : null;
+        final var smppListener = SmppListener.builder()
+                .configuration(configuration.getSmppServerConfiguration())
+                .channelHandler(createSmppChannelHandler(identityClient, configuration.getSmppServerConfiguration()))
+                .warmUp(warmUp)
+                .warmUpTimeoutSeconds((warmUp != null) ? warmUpConfig.timeoutSeconds() : 0)
+                .build();
+        environment.lifecycle().manage(smppListener);
+        environment.healthChecks().register("smpp-readiness", new ReadinessHealthCheck(smppListener));
     }
 
-    private static SmppChannelHandler createSmppChannelHandler(final AuthenticationClient identityClient) {
-        return SmppChannelHandler.builder().authenticationClient(identityClient).build();
+    private static SmppChannelHandler createSmppChannelHandler(final AuthenticationClient identityClient,
+            final SmppServerConfiguration smppServerConfig) {
+        final var builder = SmppChannelHandler.builder().authenticationClient(identityClient);
+        if ((smppServerConfig.maxSessionsPerCustomer() > 0) || (smppServerConfig.maxSessionsPerSystemId() > 0)) {
+            builder.sessionLimiter(new SessionLimiter(Metrics.globalRegistry,
+                    smppServerConfig.maxSessionsPerCustomer(), smppServerConfig.maxSessionsPerSystemId()));
+        }
+        final var tlsConfig = smppServerConfig.tlsConfiguration();
+        if ((tlsConfig != null) && tlsConfig.enabled()) {
+            try {
+                builder.tlsHandlerFactory(TlsHandlerFactory.create(tlsConfig));
+            } catch (final SSLException e) {
+                throw new IllegalStateException("Unable to set up TLS for the SMPP listener", e);
+            }
+        }
+        return builder.build();
     }
 
     private static IdentityConfiguration createIdentityConfig(final SmppProxyConfiguration configuration) {
@@ -34,11 +138,120 @@ public class SmppServerBundle {
                         .endpoint(identityDynamoConfig.endpoint())
                         .region(identityDynamoConfig.region())
                         .tableName(identityDynamoConfig.tableName())
+                        .replicas(identityDynamoConfig.replicas().stream()
+                                .map(replicaConfig -> ImmutableIdentityDynamoDBReplicaConfiguration.builder()
+                                        .local(replicaConfig.local())
+                                        .endpoint(replicaConfig.endpoint())
+                                        .region(replicaConfig.region())
+                                        .tableName(replicaConfig.tableName())
+                                        .priority(replicaConfig.priority())
+                                        .build())
+                                .collect(Collectors.toList()))
+                        .replicaRetries(identityDynamoConfig.replicaRetries())
+                        .maxConnections(identityDynamoConfig.maxConnections())
+                        .connectionTimeoutMillis(identityDynamoConfig.connectionTimeoutMillis())
+                        .socketTimeoutMillis(identityDynamoConfig.socketTimeoutMillis())
+                        .requestTimeoutMillis(identityDynamoConfig.requestTimeoutMillis())
+                        .clientExecutionTimeoutMillis(identityDynamoConfig.clientExecutionTimeoutMillis())
+                        .latencyEwmaAlpha(identityDynamoConfig.latencyEwmaAlpha())
+                        .unhealthySeconds(identityDynamoConfig.unhealthySeconds())
+                        .probeRatio(identityDynamoConfig.probeRatio())
                         .build())
+                .passwordHashConfiguration(Optional.ofNullable(identityModuleConfig.passwordHashConfiguration())
+                        .filter(passwordHashConfig -> passwordHashConfig.enabled())
+                        .map(passwordHashConfig -> ImmutableIdentityPasswordHashConfiguration.builder()
+                                .algorithm(passwordHashConfig.algorithm())
+                                .cost(passwordHashConfig.cost())
+                                .build()))
+                .identityCacheConfiguration(Optional.ofNullable(identityModuleConfig.identityCacheConfiguration())
+                        .map(cacheConfig -> ImmutableIdentityCacheConfiguration.builder()
+                                .ttlSeconds(cacheConfig.ttlSeconds())
+                                .maxEntries(cacheConfig.maxEntries())
+                                .type(cacheConfig.type())
+                                .build()))
+                .invalidationConfiguration(Optional.ofNullable(identityModuleConfig.invalidationConfiguration())
+                        .filter(invalidationConfig -> invalidationConfig.enabled())
+                        .map(invalidationConfig -> ImmutableIdentityInvalidationConfiguration.builder()
+                                .transport(invalidationConfig.transport())
+                                .bindAddress(nonBlank(invalidationConfig.bindAddress()))
+                                .port(invalidationConfig.port())
+                                .multicastGroup(nonBlank(invalidationConfig.multicastGroup()))
+                                .peers(invalidationConfig.peers())
+                                .sharedSecret(nonBlank(invalidationConfig.sharedSecret()))
+                                .batchMillis(invalidationConfig.batchMillis())
+                                .build()))
+                .latencyEqualizationConfiguration(
+                        Optional.ofNullable(identityModuleConfig.latencyEqualizationConfiguration())
+                                .filter(equalizationConfig -> equalizationConfig.enabled())
+                                .map(equalizationConfig -> ImmutableLatencyEqualizationConfiguration.builder()
+                                        .sampleSize(equalizationConfig.sampleSize())
+                                        .maxDelayMillis(equalizationConfig.maxDelayMillis())
+                                        .tickMillis(equalizationConfig.tickMillis())
+                                        .maxPendingDelays(equalizationConfig.maxPendingDelays())
+                                        .build()))
+                .executionMode(identityModuleConfig.executionMode())
+                .platformThreads(identityModuleConfig.platformThreads())
+                .pinnedThresholdMillis(identityModuleConfig.pinnedThresholdMillis())
                 .build();
     }
 
-    private static AuthenticationClient createIdentityClient(final IdentityConfiguration identityConfig) {
-        return AuthenticationClientImpl.builder().config(identityConfig).build();
+    private static IdentityCache createIdentityCache(final IdentityCacheConfiguration cacheConfig) {
+        final var ttl = Duration.ofSeconds(cacheConfig.ttlSeconds());
+        if (cacheConfig.type() == IdentityCacheType.OFF_HEAP) {
+            return new OffHeapIdentityCache(ttl, cacheConfig.maxEntries());
+        }
+        return new OnHeapIdentityCache(ttl, cacheConfig.maxEntries());
+    }
+
+    private static IdentityInvalidationBus createInvalidationBus(
+            final IdentityInvalidationConfiguration invalidationConfig,
+            final IdentityCache identityCache) {
+        return IdentityInvalidationBus.builder()
+                .identityCache(identityCache)
+                .transport(createInvalidationTransport(invalidationConfig))
+                .batchMillis(invalidationConfig.batchMillis())
+                .build();
+    }
+
+    private static InvalidationTransport createInvalidationTransport(
+            final IdentityInvalidationConfiguration invalidationConfig) {
+        switch (invalidationConfig.transport()) {
+            case UDP:
+            default:
+                try {
+                    final var multicastGroup = invalidationConfig.multicastGroup().isPresent()
+                            ? InetAddress.getByName(invalidationConfig.multicastGroup().get())
+                            : null;
+                    final var peers = invalidationConfig.peers()
+                            .stream()
+                            .map(SmppServerBundle::toSocketAddress)
+                            .collect(Collectors.toList());
+                    return new UdpInvalidationTransport(InetAddress.getByName(invalidationConfig.bindAddress().get()),
+                            invalidationConfig.port(), multicastGroup, peers,
+                            Base64.getDecoder().decode(invalidationConfig.sharedSecret().get()));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Unable to open the identity invalidation transport", e);
+                }
+        }
+    }
+
+    /**
+     * Empty for a missing or blank value, e.g. an unset environment variable
+     */
+    private static Optional<String> nonBlank(final String value) {
+        return Optional.ofNullable(value).filter(present -> !present.isBlank());
+    }
+
+    /**
+     * Parse host:port, the port follows the last colon to allow IPv6 hosts
+     */
+    private static InetSocketAddress toSocketAddress(final String hostAndPort) {
+        final var separator = hostAndPort.lastIndexOf(':');
+        return new InetSocketAddress(hostAndPort.substring(0, separator),
+                Integer.parseInt(hostAndPort.substring(separator + 1)));
+    }
+
+    private static AuthenticationClient createIdentityClient(final AuthenticationServerImpl authenticationServer) {
+        return AuthenticationClientImpl.builder().identityServer(authenticationServer).build();
     }
 }
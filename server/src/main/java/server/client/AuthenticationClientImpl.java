@@ -5,9 +5,9 @@ import protocol.authentication.AuthenticationClient;
 import protocol.authentication.AuthenticationServer;
 import protocol.AuthenticationResponse;
 import protocol.UnsuccessfulResponse;
-import protocol.configuration.IdentityConfiguration;
 
-import authentication.AuthenticationServerImpl;
+import java.util.concurrent.CompletableFuture;
+
 import io.vavr.control.Either;
 import lombok.Builder;
 import lombok.NonNull;
@@ -17,8 +17,8 @@ public class AuthenticationClientImpl implements AuthenticationClient {
     private final AuthenticationServer identityServer;
 
     @Builder
-    public AuthenticationClientImpl(final @NonNull IdentityConfiguration config) {
-        this.identityServer = AuthenticationServerImpl.builder().config(config).build();
+    public AuthenticationClientImpl(final @NonNull AuthenticationServer identityServer) {
+        this.identityServer = identityServer;
     }
 
     /**
@@ -33,4 +33,18 @@ public class AuthenticationClientImpl implements AuthenticationClient {
 
         return this.identityServer.authenticate(authenticationRequest);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Either<UnsuccessfulResponse, AuthenticationResponse>> authenticateAsync(
+            final String systemId,
+            final String passwordHash,
+            final String remoteIp) {
+        final var authenticationRequest =
+                ImmutableAuthenticationRequest.builder().systemId(systemId).password(passwordHash).ip(remoteIp).build();
+
+        return this.identityServer.authenticateAsync(authenticationRequest);
+    }
 }
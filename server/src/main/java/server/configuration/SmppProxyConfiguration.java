@@ -1,6 +1,8 @@
 package server.configuration;
 
 import server.smpp.configuration.IdentityConfiguration;
+import server.smpp.configuration.SmppServerConfiguration;
+import server.smpp.configuration.WarmUpConfiguration;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -18,6 +20,14 @@ public class SmppProxyConfiguration extends Configuration {
     @JsonProperty("identityModuleConfiguration")
     private IdentityConfiguration identityModuleConfiguration;
 
+    @Valid
+    @NotNull
+    @JsonProperty("smppServerConfiguration")
+    private SmppServerConfiguration smppServerConfiguration;
+
+    @Valid
+    @JsonProperty("warmUpConfiguration")
+    private WarmUpConfiguration warmUpConfiguration;
 
     /**
      * Returns the {@link IdentityConfiguration}
@@ -28,4 +38,22 @@ public class SmppProxyConfiguration extends Configuration {
         return this.identityModuleConfiguration;
     }
 
+    /**
+     * Returns the {@link SmppServerConfiguration}
+     *
+     * @return the {@link SmppServerConfiguration}
+     */
+    public SmppServerConfiguration getSmppServerConfiguration() {
+        return this.smppServerConfiguration;
+    }
+
+    /**
+     * Returns the {@link WarmUpConfiguration}
+     *
+     * @return the {@link WarmUpConfiguration}, null when the listener is bound without warm-up
+     */
+    public WarmUpConfiguration getWarmUpConfiguration() {
+        return this.warmUpConfiguration;
+    }
+
 }
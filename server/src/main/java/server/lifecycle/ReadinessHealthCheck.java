@@ -0,0 +1,23 @@
+package server.lifecycle;
+
+import com.codahale.metrics.health.HealthCheck;
+import lombok.NonNull;
+
+/**
+ * Unhealthy until the warm-up finished and the SMPP listener accepts binds
+ */
+public class ReadinessHealthCheck extends HealthCheck {
+
+    private final SmppListener smppListener;
+
+    public ReadinessHealthCheck(final @NonNull SmppListener smppListener) {
+        this.smppListener = smppListener;
+    }
+
+    @Override
+    protected Result check() {
+        return this.smppListener.isListening()
+                ? Result.healthy("accepting binds")
+                : Result.unhealthy("not accepting binds, warming up or the SMPP port is in use");
+    }
+}
@@ -0,0 +1,128 @@
+package server.lifecycle;
+
+import server.smpp.configuration.SmppServerConfiguration;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.dropwizard.lifecycle.Managed;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Binds the SMPP port once the warm-up finished or timed out. Until then the port is closed, so neither clients nor
+ * load balancer health checks complete a TCP handshake with a node that is still warming up. The warm-up runs in the
+ * background, so the admin endpoints and the readiness health check are available while the JVM warms up. A port in
+ * use is logged and keeps the node unready.
+ */
+@Slf4j
+public class SmppListener implements Managed {
+
+    private final SmppServerConfiguration configuration;
+    private final ChannelHandler channelHandler;
+    private final WarmUp warmUp;
+    private final long warmUpTimeoutSeconds;
+    private final EventLoopGroup bossGroup;
+    private final EventLoopGroup workerGroup;
+    // guarded by this, a warm-up finishing after stop() no longer binds
+    private boolean stopped;
+    private volatile Channel serverChannel;
+
+    @Builder
+    public SmppListener(final @NonNull SmppServerConfiguration configuration,
+            final @NonNull ChannelHandler channelHandler,
+            final WarmUp warmUp,
+            final long warmUpTimeoutSeconds) {
+        this.configuration = configuration;
+        this.channelHandler = channelHandler;
+        this.warmUp = warmUp;
+        this.warmUpTimeoutSeconds = warmUpTimeoutSeconds;
+        this.bossGroup = new NioEventLoopGroup(configuration.bossThreads());
+        this.workerGroup = new NioEventLoopGroup(configuration.workerThreads());
+    }
+
+    @Override
+    public void start() {
+        final var starter = new Thread(() -> {
+            this.runWarmUp();
+            this.bind();
+        }, "smpp-listener-starter");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    private synchronized void bind() {
+        if (this.stopped) {
+            return;
+        }
+
+        try {
+            // sync() rethrows the bind failure, e.g. a BindException
+            this.serverChannel = new ServerBootstrap().group(this.bossGroup, this.workerGroup)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(this.channelHandler)
+                    .bind(this.configuration.port())
+                    .sync()
+                    .channel();
+            log.info("SMPP listener accepting binds on port {}", this.configuration.port());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            log.error("Unable to bind the SMPP port {}, not accepting binds", this.configuration.port(), e);
+        }
+    }
+
+    private void runWarmUp() {
+        if (this.warmUp == null) {
+            return;
+        }
+
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(this.warmUp::run).get(this.warmUpTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (final TimeoutException e) {
+            this.warmUp.cancel();
+            log.warn("Warm-up did not finish within {} s, accepting binds anyway", this.warmUpTimeoutSeconds);
+        } catch (final ExecutionException e) {
+            log.warn("Warm-up failed, accepting binds anyway", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether the listener accepts binds
+     */
+    public boolean isListening() {
+        final var channel = this.serverChannel;
+        return (channel != null) && channel.isActive();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        final Channel channel;
+        synchronized (this) {
+            this.stopped = true;
+            channel = this.serverChannel;
+        }
+        if (channel != null) {
+            channel.close().sync();
+        }
+        if (this.warmUp != null) {
+            this.warmUp.writeRecentIdentities();
+        }
+        this.bossGroup.shutdownGracefully().sync();
+        this.workerGroup.shutdownGracefully().sync();
+    }
+}
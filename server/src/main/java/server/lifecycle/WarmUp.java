@@ -0,0 +1,122 @@
+package server.lifecycle;
+
+import server.smpp.configuration.WarmUpConfiguration;
+import server.smpp.pdu.SmppPduCodecWarmUp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import authentication.AuthenticationServerImpl;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms the JVM and the identity lookup before the SMPP listener accepts binds: opens the DynamoDB connections,
+ * prefetches the identities most recently accessed before the last shutdown and runs the authentication and PDU codec
+ * code paths until they are compiled by the JIT. A cancelled warm-up stops between identities and skips the
+ * remaining steps, the password checks would not react to an interrupt.
+ */
+@Slf4j
+@Builder
+public class WarmUp {
+
+    private static final String WARM_UP_DURATION = "smpp.warmup.duration";
+    private static final String STEP = "step";
+
+    private final @NonNull AuthenticationServerImpl authenticationServer;
+    private final @NonNull WarmUpConfiguration configuration;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * Run every warm-up step, failed steps are logged and skipped
+     */
+    public void run() {
+        final var total = Timer.start();
+
+        this.time("connections", () -> {
+            final var opened = this.authenticationServer.openConnections(this.configuration.connections());
+            log.info("Opened {} of {} DynamoDB connections", opened, this.configuration.connections());
+        });
+        this.time("prefetch", () -> {
+            final var systemIds = this.readRecentIdentities();
+            final var prefetched = this.authenticationServer.prefetch(systemIds, this.cancelled::get);
+            log.info("Prefetched {} of {} recently active identities", prefetched, systemIds.size());
+        });
+        this.time("authentication", () -> this.authenticationServer.warmUpCodePaths(this.configuration.iterations(),
+                this.cancelled::get));
+        this.time("pdu_codec", () -> SmppPduCodecWarmUp.run(this.configuration.iterations()));
+
+        final var nanos = total.stop(timer("total"));
+        log.info("Warm-up {} in {} ms", this.cancelled.get() ? "cancelled" : "finished", nanos / 1_000_000);
+    }
+
+    /**
+     * Stop the running warm-up, it returns after the current identity or request
+     */
+    public void cancel() {
+        this.cancelled.set(true);
+    }
+
+    /**
+     * Write the system IDs of the cached identities, they are prefetched by the next warm-up
+     */
+    public void writeRecentIdentities() {
+        if (this.configuration.recentIdentitiesFile() == null) {
+            return;
+        }
+
+        final var systemIds = this.authenticationServer.cachedSystemIds(this.configuration.prefetchLimit());
+        try {
+            Files.write(Path.of(this.configuration.recentIdentitiesFile()), systemIds, StandardCharsets.UTF_8);
+            log.info("Wrote {} recently active identities", systemIds.size());
+        } catch (final IOException e) {
+            log.warn("Unable to write the recently active identities", e);
+        }
+    }
+
+    private List<String> readRecentIdentities() {
+        if (this.configuration.recentIdentitiesFile() == null) {
+            return List.of();
+        }
+
+        final var path = Path.of(this.configuration.recentIdentitiesFile());
+        if (!Files.exists(path)) {
+            return List.of();
+        }
+        try (final var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .limit(this.configuration.prefetchLimit())
+                    .collect(Collectors.toList());
+        } catch (final IOException e) {
+            log.warn("Unable to read the recently active identities", e);
+            return List.of();
+        }
+    }
+
+    private void time(final String step, final Runnable runnable) {
+        if (this.cancelled.get()) {
+            return;
+        }
+        final var sample = Timer.start();
+        try {
+            runnable.run();
+        } catch (final RuntimeException e) {
+            log.warn("Warm-up step {} failed", step, e);
+        } finally {
+            sample.stop(timer(step));
+        }
+    }
+
+    private static Timer timer(final String step) {
+        return Timer.builder(WARM_UP_DURATION).tag(STEP, step).register(Metrics.globalRegistry);
+    }
+}
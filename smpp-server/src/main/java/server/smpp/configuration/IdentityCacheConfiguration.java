@@ -0,0 +1,28 @@
+package server.smpp.configuration;
+
+import protocol.configuration.IdentityCacheType;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class IdentityCacheConfiguration {
+
+    @JsonProperty("ttlSeconds")
+    @Valid
+    private long ttlSeconds = 300;
+
+    @JsonProperty("maxEntries")
+    @Valid
+    private int maxEntries = 100_000;
+
+    @JsonProperty("type")
+    @Valid
+    private IdentityCacheType type = IdentityCacheType.ON_HEAP;
+}
@@ -1,5 +1,7 @@
 package server.smpp.configuration;
 
+import protocol.configuration.ExecutionMode;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
@@ -19,4 +21,36 @@ public class IdentityConfiguration {
     @JsonProperty("dynamoDbConfiguration")
     private @NonNull IdentityDynamoDBConfiguration dynamoDbConfiguration;
 
+    // optional, stored password hashes are only rehashed when present and enabled
+    @Valid
+    @JsonProperty("passwordHashConfiguration")
+    private IdentityPasswordHashConfiguration passwordHashConfiguration;
+
+    // optional, identities are only cached when present
+    @Valid
+    @JsonProperty("identityCacheConfiguration")
+    private IdentityCacheConfiguration identityCacheConfiguration;
+
+    // optional, requires the identity cache
+    @Valid
+    @JsonProperty("invalidationConfiguration")
+    private IdentityInvalidationConfiguration invalidationConfiguration;
+
+    // optional, failed authentications are only delayed when present and enabled
+    @Valid
+    @JsonProperty("latencyEqualizationConfiguration")
+    private LatencyEqualizationConfiguration latencyEqualizationConfiguration;
+
+    @JsonProperty("executionMode")
+    @Valid
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+    @JsonProperty("platformThreads")
+    @Valid
+    private int platformThreads = 64;
+
+    @JsonProperty("pinnedThresholdMillis")
+    @Valid
+    private long pinnedThresholdMillis = 20;
+
 }
@@ -1,5 +1,7 @@
 package server.smpp.configuration;
 
+import java.util.List;
+
 import javax.validation.Valid;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -35,4 +37,50 @@ public class IdentityDynamoDBConfiguration {
     @JsonProperty("tableName")
     @Valid
     private String tableName = "sms.smpp-api-identity";
+
+    // replicas of a global table, without replicas the table above is the only one. The first replica is the home
+    // replica, writes only go there
+    @JsonProperty("replicas")
+    @Valid
+    private List<IdentityDynamoDBReplicaConfiguration> replicas = List.of();
+
+    // retries per replica when replicas are configured, a failed request is retried on the next replica instead
+    @JsonProperty("replicaRetries")
+    @Valid
+    private int replicaRetries = 1;
+
+    // connections of the client of each replica, requests beyond them wait for a free connection
+    @JsonProperty("maxConnections")
+    @Valid
+    private int maxConnections = 50;
+
+    @JsonProperty("connectionTimeoutMillis")
+    @Valid
+    private int connectionTimeoutMillis = 500;
+
+    @JsonProperty("socketTimeoutMillis")
+    @Valid
+    private int socketTimeoutMillis = 1000;
+
+    // timeout of a single HTTP request
+    @JsonProperty("requestTimeoutMillis")
+    @Valid
+    private int requestTimeoutMillis = 1000;
+
+    // timeout of a request including its retries
+    @JsonProperty("clientExecutionTimeoutMillis")
+    @Valid
+    private int clientExecutionTimeoutMillis = 3000;
+
+    @JsonProperty("latencyEwmaAlpha")
+    @Valid
+    private double latencyEwmaAlpha = 0.2;
+
+    @JsonProperty("unhealthySeconds")
+    @Valid
+    private long unhealthySeconds = 30;
+
+    @JsonProperty("probeRatio")
+    @Valid
+    private double probeRatio = 0.01;
 }
@@ -0,0 +1,35 @@
+package server.smpp.configuration;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class IdentityDynamoDBReplicaConfiguration {
+
+    @JsonProperty("local")
+    @Valid
+    private boolean local;
+
+    @JsonProperty("region")
+    @Valid
+    private String region = "us-east-1";
+
+    @JsonProperty("endpoint")
+    @Valid
+    private String endpoint = "http://localhost:4569";
+
+    @JsonProperty("tableName")
+    @Valid
+    private String tableName = "sms.smpp-api-identity";
+
+    // lower is preferred
+    @JsonProperty("priority")
+    @Valid
+    private int priority;
+}
@@ -0,0 +1,54 @@
+package server.smpp.configuration;
+
+import protocol.configuration.InvalidationTransportType;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class IdentityInvalidationConfiguration {
+
+    @JsonProperty("enabled")
+    @Valid
+    private boolean enabled = false;
+
+    @JsonProperty("transport")
+    @Valid
+    private InvalidationTransportType transport = InvalidationTransportType.UDP;
+
+    // address of the interface the nodes reach each other on, required for UDP
+    @JsonProperty("bindAddress")
+    @Valid
+    private String bindAddress;
+
+    @JsonProperty("port")
+    @Valid
+    private int port = 4570;
+
+    // e.g. 239.1.1.1, alternative to listing every node as a peer
+    @JsonProperty("multicastGroup")
+    @Valid
+    private String multicastGroup;
+
+    // host:port of the other nodes
+    @JsonProperty("peers")
+    @Valid
+    private List<String> peers = List.of();
+
+    // base64 of at least 16 bytes, e.g. openssl rand -base64 32, shared by all nodes
+    @JsonProperty("sharedSecret")
+    @Valid
+    private String sharedSecret;
+
+    @JsonProperty("batchMillis")
+    @Valid
+    private long batchMillis = 50;
+}
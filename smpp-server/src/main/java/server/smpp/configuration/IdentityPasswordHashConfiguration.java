@@ -0,0 +1,29 @@
+package server.smpp.configuration;
+
+import protocol.configuration.PasswordHashAlgorithm;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class IdentityPasswordHashConfiguration {
+
+    @JsonProperty("enabled")
+    @Valid
+    private boolean enabled = false;
+
+    @JsonProperty("algorithm")
+    @Valid
+    private PasswordHashAlgorithm algorithm = PasswordHashAlgorithm.BCRYPT;
+
+    // log rounds for BCRYPT, iterations for PBKDF2
+    @JsonProperty("cost")
+    @Valid
+    private int cost = 10;
+}
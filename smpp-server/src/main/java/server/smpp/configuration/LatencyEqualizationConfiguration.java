@@ -0,0 +1,40 @@
+package server.smpp.configuration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class LatencyEqualizationConfiguration {
+
+    @JsonProperty("enabled")
+    @Valid
+    private boolean enabled = true;
+
+    // latencies of the latest successful authentications the delays are drawn from
+    @JsonProperty("sampleSize")
+    @Valid
+    @Min(1)
+    private int sampleSize = 1024;
+
+    @JsonProperty("maxDelayMillis")
+    @Valid
+    private long maxDelayMillis = 1000;
+
+    // resolution of the timer wheel, every delay is rounded up to a tick
+    @JsonProperty("tickMillis")
+    @Valid
+    @Min(1)
+    private long tickMillis = 10;
+
+    // new requests are rejected before their lookup while this many failures wait for their release
+    @JsonProperty("maxPendingDelays")
+    @Valid
+    private long maxPendingDelays = 100_000;
+}
@@ -0,0 +1,42 @@
+package server.smpp.configuration;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class SmppServerConfiguration {
+
+    @JsonProperty("port")
+    @Valid
+    private int port = 2775;
+
+    @JsonProperty("bossThreads")
+    @Valid
+    private int bossThreads = 1;
+
+    // 0 uses the Netty default of twice the number of cores
+    @JsonProperty("workerThreads")
+    @Valid
+    private int workerThreads = 0;
+
+    // concurrent bound sessions per customer ID, 0 for no limit
+    @JsonProperty("maxSessionsPerCustomer")
+    @Valid
+    private int maxSessionsPerCustomer = 0;
+
+    // concurrent bound sessions per system ID, 0 for no limit
+    @JsonProperty("maxSessionsPerSystemId")
+    @Valid
+    private int maxSessionsPerSystemId = 0;
+
+    // plain SMPP without it
+    @JsonProperty("tlsConfiguration")
+    @Valid
+    private TlsConfiguration tlsConfiguration;
+}
@@ -0,0 +1,61 @@
+package server.smpp.configuration;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class TlsConfiguration {
+
+    @JsonProperty("enabled")
+    @Valid
+    private boolean enabled = false;
+
+    // PEM files
+    @JsonProperty("certificateChainFile")
+    @Valid
+    private String certificateChainFile;
+
+    @JsonProperty("privateKeyFile")
+    @Valid
+    private String privateKeyFile;
+
+    // only for an encrypted private key
+    @JsonProperty("privateKeyPassword")
+    @Valid
+    private String privateKeyPassword;
+
+    @JsonProperty("provider")
+    @Valid
+    private TlsProvider provider = TlsProvider.OPENSSL;
+
+    @JsonProperty("protocols")
+    @Valid
+    private List<String> protocols = List.of("TLSv1.3", "TLSv1.2");
+
+    // sessions kept for resumption by session ID, 0 uses the default of the engine
+    @JsonProperty("sessionCacheSize")
+    @Valid
+    private long sessionCacheSize = 20_000;
+
+    @JsonProperty("sessionTimeoutSeconds")
+    @Valid
+    private long sessionTimeoutSeconds = 3600;
+
+    // base64 of 48 bytes each (16 byte name, 16 byte HMAC key, 16 byte AES key), the first key encrypts new
+    // tickets and all keys decrypt, the same keys on every node let clients resume on any node; OpenSSL only
+    @JsonProperty("sessionTicketKeys")
+    @Valid
+    private List<String> sessionTicketKeys = List.of();
+
+    @JsonProperty("handshakeTimeoutMillis")
+    @Valid
+    private long handshakeTimeoutMillis = 10_000;
+}
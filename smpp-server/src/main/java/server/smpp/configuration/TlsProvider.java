@@ -0,0 +1,10 @@
+package server.smpp.configuration;
+
+/**
+ * Engines for terminating TLS on the SMPP listener
+ */
+public enum TlsProvider {
+    // statically linked BoringSSL of netty-tcnative, falls back to JDK when it cannot be loaded
+    OPENSSL,
+    JDK
+}
@@ -0,0 +1,43 @@
+package server.smpp.configuration;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class WarmUpConfiguration {
+
+    @JsonProperty("enabled")
+    @Valid
+    private boolean enabled = true;
+
+    // concurrent requests opening DynamoDB connections
+    @JsonProperty("connections")
+    @Valid
+    private int connections = 16;
+
+    // synthetic authentications and PDU round trips for the JIT
+    @JsonProperty("iterations")
+    @Valid
+    private int iterations = 2000;
+
+    // system IDs of the most recently accessed identities are written on shutdown and prefetched on startup, the file
+    // has to be on a volume that outlives the container or instance to survive a redeploy
+    @JsonProperty("recentIdentitiesFile")
+    @Valid
+    private String recentIdentitiesFile;
+
+    @JsonProperty("prefetchLimit")
+    @Valid
+    private int prefetchLimit = 10_000;
+
+    // the listener is bound after this time even if the warm-up has not finished
+    @JsonProperty("timeoutSeconds")
+    @Valid
+    private long timeoutSeconds = 120;
+}
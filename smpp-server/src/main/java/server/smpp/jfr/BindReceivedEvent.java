@@ -0,0 +1,20 @@
+package server.smpp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("smpp.session.BindReceived")
+@Label("Bind Received")
+@Description("Bind request decoded from the channel")
+// one per bind, only enabled while investigating a client
+@Enabled(false)
+public class BindReceivedEvent extends SmppSessionEvent {
+
+    @Label("Command ID")
+    public int commandId;
+
+    @Label("Remote IP")
+    public String remoteIp;
+}
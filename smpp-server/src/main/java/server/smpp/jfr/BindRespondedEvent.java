@@ -0,0 +1,16 @@
+package server.smpp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("smpp.session.BindResponded")
+@Label("Bind Responded")
+@Description("Time from receiving a bind request to writing its response")
+@Threshold("50 ms")
+public class BindRespondedEvent extends SmppSessionEvent {
+
+    @Label("Command Status")
+    public int commandStatus;
+}
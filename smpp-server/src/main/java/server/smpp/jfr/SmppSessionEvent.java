@@ -0,0 +1,24 @@
+package server.smpp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the flight recorder events for the lifecycle of an SMPP session
+ */
+@Category({"SMPP", "Session"})
+@StackTrace(false)
+public abstract class SmppSessionEvent extends Event {
+
+    public static final String OUTCOME_OK = "OK";
+
+    @Label("System ID")
+    public String systemId;
+
+    @Label("Outcome")
+    @Description("SmppError code, OK or the SMPP command status")
+    public String outcome;
+}
@@ -0,0 +1,18 @@
+package server.smpp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("smpp.session.Unbind")
+@Label("Unbind")
+@Description("Bound session ended by an unbind or by closing the channel")
+public class UnbindEvent extends SmppSessionEvent {
+
+    public static final String OUTCOME_CLOSED = "CLOSED";
+
+    @Label("Session Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sessionDuration;
+}
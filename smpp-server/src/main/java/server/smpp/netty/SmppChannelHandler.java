@@ -1,5 +1,10 @@
 package server.smpp.netty;
 
+import server.smpp.pdu.SmppPduDecoder;
+import server.smpp.pdu.SmppPduEncoder;
+import server.smpp.session.SessionLimiter;
+import server.smpp.tls.TlsHandlerFactory;
+
 import protocol.authentication.AuthenticationClient;
 
 import io.netty.channel.ChannelInitializer;
@@ -10,10 +15,24 @@ import lombok.NonNull;
 @Builder
 public class SmppChannelHandler extends ChannelInitializer<SocketChannel> {
 
+    private static final SmppPduEncoder ENCODER = new SmppPduEncoder();
+
     private final @NonNull AuthenticationClient authenticationClient;
 
+    // plain SMPP without it
+    private final TlsHandlerFactory tlsHandlerFactory;
+
+    // no session limits without it
+    private final SessionLimiter sessionLimiter;
+
     @Override
     protected void initChannel(final SocketChannel socketChannel) {
-        // nothing to initialize
+        if (this.tlsHandlerFactory != null) {
+            this.tlsHandlerFactory.addHandlers(socketChannel);
+        }
+        socketChannel.pipeline()
+                .addLast("decoder", new SmppPduDecoder())
+                .addLast("encoder", ENCODER)
+                .addLast("session", new SmppSessionHandler(this.authenticationClient, this.sessionLimiter));
     }
 }
@@ -0,0 +1,202 @@
+package server.smpp.netty;
+
+import server.smpp.jfr.BindReceivedEvent;
+import server.smpp.jfr.BindRespondedEvent;
+import server.smpp.jfr.SmppSessionEvent;
+import server.smpp.jfr.UnbindEvent;
+import server.smpp.pdu.BindPdu;
+import server.smpp.pdu.BindRespPdu;
+import server.smpp.pdu.HeaderOnlyPdu;
+import server.smpp.pdu.Pdu;
+import server.smpp.pdu.SmppCommandId;
+import server.smpp.pdu.SmppCommandStatus;
+import server.smpp.session.SessionLimiter;
+
+import protocol.AuthenticationResponse;
+import protocol.SmppError;
+import protocol.UnsuccessfulResponse;
+import protocol.authentication.AuthenticationClient;
+
+import java.net.InetSocketAddress;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.vavr.control.Either;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Handles the bind and unbind of a single SMPP session. Authentications are executed on the authentication
+ * executor, the event loop never blocks on the identity lookup.
+ */
+@Slf4j
+public class SmppSessionHandler extends SimpleChannelInboundHandler<Pdu> {
+
+    static final String SYSTEM_ID = "smpp-proxy";
+
+    private final AuthenticationClient authenticationClient;
+    // no session limits without it
+    private final SessionLimiter sessionLimiter;
+    // only accessed from the event loop of the channel
+    private boolean bindInProgress;
+    private AuthenticationResponse session;
+    private long boundAtNanos;
+
+    public SmppSessionHandler(final @NonNull AuthenticationClient authenticationClient,
+            final SessionLimiter sessionLimiter) {
+        this.authenticationClient = authenticationClient;
+        this.sessionLimiter = sessionLimiter;
+    }
+
+    @Override
+    protected void channelRead0(final ChannelHandlerContext ctx, final Pdu pdu) {
+        if (pdu instanceof BindPdu bind) {
+            this.bind(ctx, bind);
+        } else if (pdu.commandId() == SmppCommandId.UNBIND) {
+            this.unbind(ctx, pdu);
+        } else if (pdu.commandId() == SmppCommandId.UNBIND_RESP) {
+            ctx.close();
+        } else if ((pdu.commandId() & SmppCommandId.RESPONSE_MASK) == 0) {
+            final var status = (this.session == null) ? SmppCommandStatus.ESME_RINVBNDSTS : SmppCommandStatus.ESME_RINVCMDID;
+            ctx.writeAndFlush(HeaderOnlyPdu.genericNack(status, pdu.sequenceNumber()));
+        }
+    }
+
+    private void bind(final ChannelHandlerContext ctx, final BindPdu bind) {
+        final var remoteIp = remoteIp(ctx);
+        final var bindReceivedEvent = new BindReceivedEvent();
+        if (bindReceivedEvent.shouldCommit()) {
+            bindReceivedEvent.systemId = bind.systemId();
+            bindReceivedEvent.commandId = bind.commandId();
+            bindReceivedEvent.remoteIp = remoteIp;
+            bindReceivedEvent.commit();
+        }
+
+        final var bindRespondedEvent = new BindRespondedEvent();
+        bindRespondedEvent.begin();
+
+        if (this.bindInProgress || (this.session != null)) {
+            respond(ctx, bind, bindRespondedEvent, SmppCommandStatus.ESME_RALYBND);
+            return;
+        }
+
+        this.bindInProgress = true;
+        this.authenticationClient.authenticateAsync(bind.systemId(), bind.password(), remoteIp)
+                .whenComplete((result, throwable) -> ctx.executor().execute(() -> {
+                    this.bindInProgress = false;
+                    if (throwable != null) {
+                        log.warn("Authentication of {} failed unexpectedly", bind.systemId(), throwable);
+                        respond(ctx, bind, bindRespondedEvent, SmppCommandStatus.ESME_RSYSERR);
+                    } else {
+                        this.bound(ctx, bind, bindRespondedEvent, result);
+                    }
+                }));
+    }
+
+    private void bound(final ChannelHandlerContext ctx, final BindPdu bind, final BindRespondedEvent bindRespondedEvent,
+            final Either<UnsuccessfulResponse, AuthenticationResponse> result) {
+        if (result.isLeft()) {
+            final var error = result.getLeft().error();
+            respond(ctx, bind, bindRespondedEvent, toCommandStatus(error), error.code);
+            return;
+        }
+
+        final var response = result.get();
+        if (!ctx.channel().isActive()) {
+            // closed during the authentication, channelInactive has already run
+            return;
+        }
+        if ((this.sessionLimiter != null)
+                && !this.sessionLimiter.tryAcquire(response.customerId(), response.systemId())) {
+            log.info("Session limit reached, rejecting bind of {} of customer {}", response.systemId(),
+                    response.customerId());
+            respond(ctx, bind, bindRespondedEvent, toCommandStatus(SmppError.SMPP_3006), SmppError.SMPP_3006.code);
+            return;
+        }
+
+        this.session = response;
+        this.boundAtNanos = System.nanoTime();
+        log.debug("Session {} bound for {}", this.session.sessionId(), this.session.systemId());
+        respond(ctx, bind, bindRespondedEvent, SmppCommandStatus.ESME_ROK, SmppSessionEvent.OUTCOME_OK);
+    }
+
+    private void unbind(final ChannelHandlerContext ctx, final Pdu unbind) {
+        this.sessionEnded(SmppSessionEvent.OUTCOME_OK);
+        ctx.writeAndFlush(HeaderOnlyPdu.unbindResp(unbind.sequenceNumber())).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+        this.sessionEnded(UnbindEvent.OUTCOME_CLOSED);
+        super.channelInactive(ctx);
+    }
+
+    private void sessionEnded(final String outcome) {
+        if (this.session == null) {
+            return;
+        }
+
+        log.debug("Session {} unbound for {}", this.session.sessionId(), this.session.systemId());
+        final var unbindEvent = new UnbindEvent();
+        if (unbindEvent.shouldCommit()) {
+            unbindEvent.systemId = this.session.systemId();
+            unbindEvent.outcome = outcome;
+            unbindEvent.sessionDuration = System.nanoTime() - this.boundAtNanos;
+            unbindEvent.commit();
+        }
+        if (this.sessionLimiter != null) {
+            this.sessionLimiter.release(this.session.customerId(), this.session.systemId());
+        }
+        this.session = null;
+    }
+
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+        log.warn("Closing SMPP session of {}", ctx.channel().remoteAddress(), cause);
+        ctx.close();
+    }
+
+    private static void respond(final ChannelHandlerContext ctx, final BindPdu bind,
+            final BindRespondedEvent bindRespondedEvent, final int commandStatus, final String outcome) {
+        ctx.writeAndFlush(BindRespPdu.builder()
+                .commandId(bind.commandId() | SmppCommandId.RESPONSE_MASK)
+                .commandStatus(commandStatus)
+                .sequenceNumber(bind.sequenceNumber())
+                .systemId(SYSTEM_ID)
+                .build());
+
+        bindRespondedEvent.end();
+        if (bindRespondedEvent.shouldCommit()) {
+            bindRespondedEvent.systemId = bind.systemId();
+            bindRespondedEvent.outcome = outcome;
+            bindRespondedEvent.commandStatus = commandStatus;
+            bindRespondedEvent.commit();
+        }
+    }
+
+    private static void respond(final ChannelHandlerContext ctx, final BindPdu bind,
+            final BindRespondedEvent bindRespondedEvent, final int commandStatus) {
+        respond(ctx, bind, bindRespondedEvent, commandStatus, String.format("0x%08X", commandStatus));
+    }
+
+    /**
+     * Translate the internal SmppError to the command status of the bind response. Every credential failure gets the
+     * same status, so the client cannot tell an unknown system_id from a wrong password or a disallowed IP; the
+     * SmppError itself only goes to the logs, the metrics and the flight recorder.
+     */
+    static int toCommandStatus(final SmppError error) {
+        if (error == SmppError.SMPP_3004) {
+            return SmppCommandStatus.ESME_RSYSERR;
+        }
+        return SmppCommandStatus.ESME_RBINDFAIL;
+    }
+
+    private static String remoteIp(final ChannelHandlerContext ctx) {
+        final var remoteAddress = ctx.channel().remoteAddress();
+        if (remoteAddress instanceof InetSocketAddress inetAddress) {
+            return inetAddress.getAddress().getHostAddress();
+        }
+        return String.valueOf(remoteAddress);
+    }
+}
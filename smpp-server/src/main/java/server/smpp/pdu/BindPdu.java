@@ -0,0 +1,32 @@
+package server.smpp.pdu;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * bind_transmitter, bind_receiver or bind_transceiver request
+ */
+@Value
+@Builder
+@Accessors(fluent = true)
+public class BindPdu implements Pdu {
+
+    int commandId;
+    int commandStatus;
+    int sequenceNumber;
+    String systemId;
+    String password;
+    String systemType;
+    byte interfaceVersion;
+    byte addrTon;
+    byte addrNpi;
+    String addressRange;
+
+    @Override
+    public String toString() {
+        // never log the password
+        return "BindPdu(commandId=" + this.commandId + ", sequenceNumber=" + this.sequenceNumber + ", systemId="
+                + this.systemId + ", systemType=" + this.systemType + ')';
+    }
+}
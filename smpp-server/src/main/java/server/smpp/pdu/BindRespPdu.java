@@ -0,0 +1,19 @@
+package server.smpp.pdu;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Response to a {@link BindPdu}
+ */
+@Value
+@Builder
+@Accessors(fluent = true)
+public class BindRespPdu implements Pdu {
+
+    int commandId;
+    int commandStatus;
+    int sequenceNumber;
+    String systemId;
+}
@@ -0,0 +1,37 @@
+package server.smpp.pdu;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * PDU without a body, e.g. unbind, unbind_resp or generic_nack
+ */
+@Value
+@Accessors(fluent = true)
+public class HeaderOnlyPdu implements Pdu {
+
+    int commandId;
+    int commandStatus;
+    int sequenceNumber;
+
+    /**
+     * Create an unbind request
+     */
+    public static HeaderOnlyPdu unbind(final int sequenceNumber) {
+        return new HeaderOnlyPdu(SmppCommandId.UNBIND, SmppCommandStatus.ESME_ROK, sequenceNumber);
+    }
+
+    /**
+     * Create the response to an unbind request
+     */
+    public static HeaderOnlyPdu unbindResp(final int sequenceNumber) {
+        return new HeaderOnlyPdu(SmppCommandId.UNBIND_RESP, SmppCommandStatus.ESME_ROK, sequenceNumber);
+    }
+
+    /**
+     * Create a generic_nack for a PDU that cannot be processed
+     */
+    public static HeaderOnlyPdu genericNack(final int commandStatus, final int sequenceNumber) {
+        return new HeaderOnlyPdu(SmppCommandId.GENERIC_NACK, commandStatus, sequenceNumber);
+    }
+}
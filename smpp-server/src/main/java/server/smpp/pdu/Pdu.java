@@ -0,0 +1,15 @@
+package server.smpp.pdu;
+
+/**
+ * Common header of every SMPP PDU
+ */
+public interface Pdu {
+
+    int HEADER_LENGTH = 16;
+
+    int commandId();
+
+    int commandStatus();
+
+    int sequenceNumber();
+}
@@ -0,0 +1,27 @@
+package server.smpp.pdu;
+
+/**
+ * SMPP v3.4 command ids handled by the proxy
+ */
+public final class SmppCommandId {
+
+    public static final int GENERIC_NACK = 0x80000000;
+    public static final int BIND_RECEIVER = 0x00000001;
+    public static final int BIND_TRANSMITTER = 0x00000002;
+    public static final int UNBIND = 0x00000006;
+    public static final int UNBIND_RESP = 0x80000006;
+    public static final int BIND_TRANSCEIVER = 0x00000009;
+
+    // set on the command id of every response
+    public static final int RESPONSE_MASK = 0x80000000;
+
+    private SmppCommandId() {
+    }
+
+    /**
+     * Return whether the command id is one of the bind requests
+     */
+    public static boolean isBind(final int commandId) {
+        return (commandId == BIND_RECEIVER) || (commandId == BIND_TRANSMITTER) || (commandId == BIND_TRANSCEIVER);
+    }
+}
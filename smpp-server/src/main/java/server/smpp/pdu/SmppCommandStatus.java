@@ -0,0 +1,19 @@
+package server.smpp.pdu;
+
+/**
+ * SMPP v3.4 command status codes returned by the proxy
+ */
+public final class SmppCommandStatus {
+
+    public static final int ESME_ROK = 0x00000000;
+    public static final int ESME_RINVCMDID = 0x00000003;
+    public static final int ESME_RINVBNDSTS = 0x00000004;
+    public static final int ESME_RALYBND = 0x00000005;
+    public static final int ESME_RSYSERR = 0x00000008;
+    public static final int ESME_RBINDFAIL = 0x0000000D;
+    public static final int ESME_RINVPASWD = 0x0000000E;
+    public static final int ESME_RINVSYSID = 0x0000000F;
+
+    private SmppCommandStatus() {
+    }
+}
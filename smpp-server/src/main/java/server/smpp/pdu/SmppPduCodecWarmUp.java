@@ -0,0 +1,50 @@
+package server.smpp.pdu;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Round-trips bind and unbind PDUs through the codec, so it is compiled by the JIT before the first bind
+ */
+public final class SmppPduCodecWarmUp {
+
+    private SmppPduCodecWarmUp() {
+    }
+
+    /**
+     * @param iterations - number of encoded and decoded PDUs of each type
+     */
+    public static void run(final int iterations) {
+        final var encoder = new EmbeddedChannel(new SmppPduEncoder());
+        final var decoder = new EmbeddedChannel(new SmppPduDecoder());
+        try {
+            for (int i = 0; i < iterations; i++) {
+                roundTrip(encoder, decoder, BindPdu.builder()
+                        .commandId(SmppCommandId.BIND_TRANSCEIVER)
+                        .sequenceNumber(i)
+                        .systemId("warm-up")
+                        .password("warm-up")
+                        .systemType("")
+                        .interfaceVersion((byte) 0x34)
+                        .addressRange("")
+                        .build());
+                roundTrip(encoder, decoder, BindRespPdu.builder()
+                        .commandId(SmppCommandId.BIND_TRANSCEIVER | SmppCommandId.RESPONSE_MASK)
+                        .sequenceNumber(i)
+                        .systemId("warm-up")
+                        .build());
+                roundTrip(encoder, decoder, HeaderOnlyPdu.unbind(i));
+            }
+        } finally {
+            encoder.finishAndReleaseAll();
+            decoder.finishAndReleaseAll();
+        }
+    }
+
+    private static void roundTrip(final EmbeddedChannel encoder, final EmbeddedChannel decoder, final Pdu pdu) {
+        encoder.writeOutbound(pdu);
+        final ByteBuf encoded = encoder.readOutbound();
+        decoder.writeInbound(encoded);
+        decoder.readInbound();
+    }
+}
@@ -0,0 +1,75 @@
+package server.smpp.pdu;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Decodes SMPP PDUs from the byte stream. Bind requests are decoded completely, every other PDU is decoded to a
+ * {@link HeaderOnlyPdu} and its body is skipped.
+ */
+public class SmppPduDecoder extends ByteToMessageDecoder {
+
+    // upper bound for a single PDU, protects against malformed length fields
+    static final int MAX_PDU_LENGTH = 64 * 1024;
+    private static final byte NULL_TERMINATOR = 0;
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+        if (in.readableBytes() < Integer.BYTES) {
+            return;
+        }
+
+        final var commandLength = in.getInt(in.readerIndex());
+        if ((commandLength < Pdu.HEADER_LENGTH) || (commandLength > MAX_PDU_LENGTH)) {
+            // the stream cannot be resynchronized, drop it so the failure is not decoded again on close
+            in.skipBytes(in.readableBytes());
+            throw new CorruptedFrameException("invalid command_length " + commandLength);
+        }
+        if (in.readableBytes() < commandLength) {
+            return;
+        }
+
+        final var frame = in.readSlice(commandLength);
+        frame.skipBytes(Integer.BYTES);
+        final var commandId = frame.readInt();
+        final var commandStatus = frame.readInt();
+        final var sequenceNumber = frame.readInt();
+
+        if (SmppCommandId.isBind(commandId)) {
+            out.add(BindPdu.builder()
+                    .commandId(commandId)
+                    .commandStatus(commandStatus)
+                    .sequenceNumber(sequenceNumber)
+                    .systemId(readCString(frame))
+                    .password(readCString(frame))
+                    .systemType(readCString(frame))
+                    .interfaceVersion(readByte(frame))
+                    .addrTon(readByte(frame))
+                    .addrNpi(readByte(frame))
+                    .addressRange(readCString(frame))
+                    .build());
+        } else {
+            out.add(new HeaderOnlyPdu(commandId, commandStatus, sequenceNumber));
+        }
+    }
+
+    /**
+     * Read a null terminated ASCII string, a missing terminator ends the string at the end of the PDU
+     */
+    private static String readCString(final ByteBuf frame) {
+        final var end = frame.indexOf(frame.readerIndex(), frame.writerIndex(), NULL_TERMINATOR);
+        final var length = ((end < 0) ? frame.writerIndex() : end) - frame.readerIndex();
+        final var value = frame.toString(frame.readerIndex(), length, StandardCharsets.US_ASCII);
+        frame.skipBytes(Math.min(length + 1, frame.readableBytes()));
+        return value;
+    }
+
+    private static byte readByte(final ByteBuf frame) {
+        return frame.isReadable() ? frame.readByte() : 0;
+    }
+}
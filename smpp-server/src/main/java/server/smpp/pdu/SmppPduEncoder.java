@@ -0,0 +1,45 @@
+package server.smpp.pdu;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * Encodes the PDUs sent by the proxy
+ */
+@Sharable
+public class SmppPduEncoder extends MessageToByteEncoder<Pdu> {
+
+    @Override
+    protected void encode(final ChannelHandlerContext ctx, final Pdu pdu, final ByteBuf out) {
+        final var start = out.writerIndex();
+        out.writeInt(0);
+        out.writeInt(pdu.commandId());
+        out.writeInt(pdu.commandStatus());
+        out.writeInt(pdu.sequenceNumber());
+
+        if (pdu instanceof BindRespPdu bindResp) {
+            writeCString(out, bindResp.systemId());
+        } else if (pdu instanceof BindPdu bind) {
+            writeCString(out, bind.systemId());
+            writeCString(out, bind.password());
+            writeCString(out, bind.systemType());
+            out.writeByte(bind.interfaceVersion());
+            out.writeByte(bind.addrTon());
+            out.writeByte(bind.addrNpi());
+            writeCString(out, bind.addressRange());
+        }
+
+        out.setInt(start, out.writerIndex() - start);
+    }
+
+    private static void writeCString(final ByteBuf out, final String value) {
+        if (value != null) {
+            out.writeCharSequence(value, StandardCharsets.US_ASCII);
+        }
+        out.writeByte(0);
+    }
+}
@@ -0,0 +1,122 @@
+package server.smpp.session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrent bound sessions per customer ID and per system ID. Every key has its own counter, so binds of different
+ * customers never contend, and a bind only takes a slot after a compare-and-set below the limit.
+ */
+public class SessionLimiter {
+
+    private static final String REJECTIONS = "smpp.session.limit.rejections";
+    private static final String LIMIT = "limit";
+    // a counter released to zero is retired with this value and replaced by a new one
+    private static final int RETIRED = -1;
+
+    private final int maxSessionsPerCustomer;
+    private final int maxSessionsPerSystemId;
+    private final Map<String, AtomicInteger> customerSessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> systemIdSessions = new ConcurrentHashMap<>();
+    private final Counter customerRejections;
+    private final Counter systemIdRejections;
+
+    /**
+     * @param maxSessionsPerCustomer - concurrent sessions per customer ID, 0 for no limit
+     * @param maxSessionsPerSystemId - concurrent sessions per system ID, 0 for no limit
+     */
+    public SessionLimiter(final MeterRegistry registry, final int maxSessionsPerCustomer,
+            final int maxSessionsPerSystemId) {
+        this.maxSessionsPerCustomer = maxSessionsPerCustomer;
+        this.maxSessionsPerSystemId = maxSessionsPerSystemId;
+        this.customerRejections = Counter.builder(REJECTIONS).tag(LIMIT, "customer_id").register(registry);
+        this.systemIdRejections = Counter.builder(REJECTIONS).tag(LIMIT, "system_id").register(registry);
+    }
+
+    /**
+     * Take a session slot of the customer and the system ID
+     *
+     * @return whether both are below their limit, no slot is taken otherwise
+     */
+    public boolean tryAcquire(final String customerId, final String systemId) {
+        if (!tryAcquire(this.systemIdSessions, systemId, this.maxSessionsPerSystemId)) {
+            this.systemIdRejections.increment();
+            return false;
+        }
+        if (!tryAcquire(this.customerSessions, customerId, this.maxSessionsPerCustomer)) {
+            release(this.systemIdSessions, systemId, this.maxSessionsPerSystemId);
+            this.customerRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the slots taken by {@link #tryAcquire(String, String)}
+     */
+    public void release(final String customerId, final String systemId) {
+        release(this.customerSessions, customerId, this.maxSessionsPerCustomer);
+        release(this.systemIdSessions, systemId, this.maxSessionsPerSystemId);
+    }
+
+    /**
+     * Bound sessions of the customer
+     */
+    public int customerSessions(final String customerId) {
+        return sessions(this.customerSessions, customerId);
+    }
+
+    /**
+     * Bound sessions of the system ID
+     */
+    public int systemIdSessions(final String systemId) {
+        return sessions(this.systemIdSessions, systemId);
+    }
+
+    /**
+     * Customer IDs and system IDs with a counter, released keys are removed
+     */
+    int trackedKeys() {
+        return this.customerSessions.size() + this.systemIdSessions.size();
+    }
+
+    private static boolean tryAcquire(final Map<String, AtomicInteger> sessions, final String key, final int limit) {
+        if (limit <= 0) {
+            return true;
+        }
+        while (true) {
+            final var counter = sessions.computeIfAbsent(key, ignored -> new AtomicInteger());
+            int current = counter.get();
+            while (current != RETIRED) {
+                if (current >= limit) {
+                    return false;
+                }
+                if (counter.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                current = counter.get();
+            }
+            // released to zero concurrently, help to remove it and retry with a new counter
+            sessions.remove(key, counter);
+        }
+    }
+
+    private static void release(final Map<String, AtomicInteger> sessions, final String key, final int limit) {
+        if (limit <= 0) {
+            return;
+        }
+        final var counter = sessions.get(key);
+        if ((counter != null) && (counter.decrementAndGet() == 0) && counter.compareAndSet(0, RETIRED)) {
+            sessions.remove(key, counter);
+        }
+    }
+
+    private static int sessions(final Map<String, AtomicInteger> sessions, final String key) {
+        final var counter = sessions.get(key);
+        return (counter == null) ? 0 : Math.max(counter.get(), 0);
+    }
+}
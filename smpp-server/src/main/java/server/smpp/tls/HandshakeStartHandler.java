@@ -0,0 +1,31 @@
+package server.smpp.tls;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Takes the start of the handshake from the first bytes the client sends, so the time a connection stays idle before
+ * its ClientHello is not part of the handshake latency. Removes itself once it has seen them.
+ */
+class HandshakeStartHandler extends ChannelInboundHandlerAdapter {
+
+    // when the connection was accepted, until the first bytes arrive
+    private long startMillis = System.currentTimeMillis();
+    private long startNanos = System.nanoTime();
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+        this.startMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        ctx.pipeline().remove(this);
+        ctx.fireChannelRead(msg);
+    }
+
+    long startMillis() {
+        return this.startMillis;
+    }
+
+    long startNanos() {
+        return this.startNanos;
+    }
+}
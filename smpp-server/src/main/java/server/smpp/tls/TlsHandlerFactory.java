@@ -0,0 +1,118 @@
+package server.smpp.tls;
+
+import server.smpp.configuration.TlsConfiguration;
+import server.smpp.configuration.TlsProvider;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.net.ssl.SSLException;
+
+import io.micrometer.core.instrument.Metrics;
+import io.netty.channel.Channel;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslProvider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the {@link SslHandler} of each SMPP connection from a shared {@link SslContext}, so the session cache and
+ * the session ticket keys are shared by all connections
+ */
+@Slf4j
+public class TlsHandlerFactory {
+
+    private final SslContext sslContext;
+    private final long handshakeTimeoutMillis;
+    private final TlsHandshakeMetrics metrics;
+
+    TlsHandlerFactory(final SslContext sslContext,
+            final long handshakeTimeoutMillis,
+            final TlsHandshakeMetrics metrics) {
+        this.sslContext = sslContext;
+        this.handshakeTimeoutMillis = handshakeTimeoutMillis;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Create the factory, OpenSSL falls back to the JDK engine when netty-tcnative is not available on the platform
+     *
+     * @param configuration - TLS configuration of the listener
+     *
+     * @throws SSLException on an invalid certificate, key or session ticket key
+     */
+    public static TlsHandlerFactory create(final TlsConfiguration configuration) throws SSLException {
+        var provider = SslProvider.JDK;
+        if (configuration.provider() == TlsProvider.OPENSSL) {
+            if (OpenSsl.isAvailable()) {
+                provider = SslProvider.OPENSSL;
+            } else {
+                log.warn("OpenSSL is not available, falling back to the JDK engine", OpenSsl.unavailabilityCause());
+            }
+        }
+
+        final var sslContext = SslContextBuilder.forServer(new File(configuration.certificateChainFile()),
+                        new File(configuration.privateKeyFile()), configuration.privateKeyPassword())
+                .sslProvider(provider)
+                .protocols(configuration.protocols())
+                .sessionCacheSize(configuration.sessionCacheSize())
+                .sessionTimeout(configuration.sessionTimeoutSeconds())
+                .build();
+
+        // blank keys are unset environment variables
+        final var ticketKeys = configuration.sessionTicketKeys()
+                .stream()
+                .filter(key -> !key.isBlank())
+                .map(TlsHandlerFactory::parseTicketKey)
+                .toArray(OpenSslSessionTicketKey[]::new);
+        if (ticketKeys.length > 0) {
+            if (sslContext.sessionContext() instanceof OpenSslSessionContext) {
+                ((OpenSslSessionContext) sslContext.sessionContext()).setTicketKeys(ticketKeys);
+            } else {
+                log.warn("Session ticket keys are ignored by the JDK engine");
+            }
+        }
+
+        log.info("TLS enabled with the {} engine", provider);
+        return new TlsHandlerFactory(sslContext, configuration.handshakeTimeoutMillis(),
+                new TlsHandshakeMetrics(Metrics.globalRegistry, provider.name()));
+    }
+
+    /**
+     * Add the TLS handler of a new connection to its pipeline, recording its handshake from the first bytes the
+     * client sends
+     *
+     * @param channel - the accepted connection
+     */
+    public void addHandlers(final Channel channel) {
+        final var handshakeStart = new HandshakeStartHandler();
+        final var sslHandler = this.sslContext.newHandler(channel.alloc());
+        sslHandler.setHandshakeTimeoutMillis(this.handshakeTimeoutMillis);
+        sslHandler.handshakeFuture().addListener(future -> this.metrics.record(sslHandler.engine(),
+                handshakeStart.startMillis(), handshakeStart.startNanos(), future.isSuccess()));
+        channel.pipeline().addLast("tls-handshake-start", handshakeStart).addLast("tls", sslHandler);
+    }
+
+    private static OpenSslSessionTicketKey parseTicketKey(final String base64) {
+        final byte[] key;
+        try {
+            key = Base64.getDecoder().decode(base64.trim());
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Session ticket key is not valid base64", e);
+        }
+        if (key.length != OpenSslSessionTicketKey.TICKET_KEY_SIZE) {
+            throw new IllegalArgumentException(
+                    "Session ticket key must have " + OpenSslSessionTicketKey.TICKET_KEY_SIZE + " bytes");
+        }
+        final var hmacKeyOffset = OpenSslSessionTicketKey.NAME_SIZE;
+        final var aesKeyOffset = hmacKeyOffset + OpenSslSessionTicketKey.HMAC_KEY_SIZE;
+        return new OpenSslSessionTicketKey(Arrays.copyOfRange(key, 0, hmacKeyOffset),
+                Arrays.copyOfRange(key, hmacKeyOffset, aesKeyOffset),
+                Arrays.copyOfRange(key, aesKeyOffset, aesKeyOffset + OpenSslSessionTicketKey.AES_KEY_SIZE));
+    }
+}
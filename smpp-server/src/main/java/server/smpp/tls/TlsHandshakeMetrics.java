@@ -0,0 +1,75 @@
+package server.smpp.tls;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLEngine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.ssl.ReferenceCountedOpenSslEngine;
+import io.netty.internal.tcnative.SSL;
+
+/**
+ * Handshake counts and latencies of the SMPP listener, by full, resumed and failed handshakes
+ */
+public class TlsHandshakeMetrics {
+
+    private static final String HANDSHAKE = "smpp.tls.handshake";
+    private static final String RESULT = "result";
+    private static final String PROVIDER = "provider";
+
+    private final Timer full;
+    private final Timer resumed;
+    private final Timer failed;
+
+    public TlsHandshakeMetrics(final MeterRegistry registry, final String provider) {
+        this.full = Timer.builder(HANDSHAKE).tag(RESULT, "full").tag(PROVIDER, provider).register(registry);
+        this.resumed = Timer.builder(HANDSHAKE).tag(RESULT, "resumed").tag(PROVIDER, provider).register(registry);
+        this.failed = Timer.builder(HANDSHAKE).tag(RESULT, "failed").tag(PROVIDER, provider).register(registry);
+        Gauge.builder(HANDSHAKE + ".resumption_ratio", this, TlsHandshakeMetrics::resumptionRatio)
+                .tag(PROVIDER, provider)
+                .register(registry);
+    }
+
+    /**
+     * Record a completed handshake
+     *
+     * @param engine      - engine of the connection
+     * @param startMillis - wall clock time the first bytes of the client arrived
+     * @param startNanos  - {@link System#nanoTime()} the first bytes of the client arrived
+     * @param success     - whether the handshake succeeded
+     */
+    public void record(final SSLEngine engine, final long startMillis, final long startNanos, final boolean success) {
+        final var duration = System.nanoTime() - startNanos;
+        if (!success) {
+            this.failed.record(duration, TimeUnit.NANOSECONDS);
+        } else if (isResumed(engine, startMillis)) {
+            this.resumed.record(duration, TimeUnit.NANOSECONDS);
+        } else {
+            this.full.record(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Share of the successful handshakes that resumed a session
+     */
+    public double resumptionRatio() {
+        final var resumedCount = this.resumed.count();
+        final var total = this.full.count() + resumedCount;
+        return (total == 0) ? 0 : ((double) resumedCount / total);
+    }
+
+    /**
+     * OpenSSL reports the resumption itself. The JDK engine does not, and its session IDs cannot tell either: TLS 1.3
+     * resumptions get a new ID. A resumed JDK session keeps the creation time of its full handshake in milliseconds,
+     * while a full handshake creates its session after the ClientHello arrived.
+     */
+    private static boolean isResumed(final SSLEngine engine, final long startMillis) {
+        if (engine instanceof ReferenceCountedOpenSslEngine) {
+            return SSL.isSessionReused(((ReferenceCountedOpenSslEngine) engine).sslPointer());
+        }
+        final var session = engine.getSession();
+        return (session != null) && (session.getCreationTime() < startMillis);
+    }
+}
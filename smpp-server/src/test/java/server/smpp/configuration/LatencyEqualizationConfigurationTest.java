@@ -0,0 +1,40 @@
+package server.smpp.configuration;
+
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class LatencyEqualizationConfigurationTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    public void testDefaultsAreValid() throws Exception {
+        assertThat(this.validator.validate(this.parse("{}")), is(empty()));
+        assertThat(this.validator.validate(this.parse("{\"sampleSize\": 1, \"tickMillis\": 1}")), is(empty()));
+    }
+
+    @Test
+    public void testSampleSizeAndTickRequired() throws Exception {
+        final var violations = this.validator.validate(this.parse("{\"sampleSize\": 0, \"tickMillis\": 0}")).stream()
+                .map(ConstraintViolation::getPropertyPath)
+                .map(Object::toString)
+                .collect(Collectors.toList());
+
+        assertThat(violations, containsInAnyOrder("sampleSize", "tickMillis"));
+    }
+
+    private LatencyEqualizationConfiguration parse(final String json) throws Exception {
+        return this.mapper.readValue(json, LatencyEqualizationConfiguration.class);
+    }
+}
@@ -0,0 +1,140 @@
+package server.smpp.netty;
+
+import server.smpp.pdu.BindPdu;
+import server.smpp.pdu.BindRespPdu;
+import server.smpp.pdu.HeaderOnlyPdu;
+import server.smpp.pdu.SmppCommandId;
+import server.smpp.pdu.SmppCommandStatus;
+import server.smpp.session.SessionLimiter;
+
+import protocol.AuthenticationResponse;
+import protocol.ImmutableAuthenticationResponse;
+import protocol.ImmutableUnsuccessfulResponse;
+import protocol.SmppError;
+import protocol.UnsuccessfulResponse;
+import protocol.authentication.AuthenticationClient;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.vavr.control.Either;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SmppSessionHandlerTest {
+    private final AuthenticationClient authenticationClient = mock(AuthenticationClient.class);
+    private final SessionLimiter sessionLimiter = new SessionLimiter(new SimpleMeterRegistry(), 0, 1);
+    private final EmbeddedChannel channel =
+            new EmbeddedChannel(new SmppSessionHandler(this.authenticationClient, this.sessionLimiter));
+
+    @Before
+    public void setUp() {
+        final Either<UnsuccessfulResponse, AuthenticationResponse> response = Either.right(
+                ImmutableAuthenticationResponse.builder()
+                        .systemId("system_id")
+                        .sessionId("session_id")
+                        .customerId("customer_id")
+                        .build());
+        when(this.authenticationClient.authenticateAsync(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(response));
+    }
+
+    @After
+    public void tearDown() {
+        this.channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBindTakesSlot() {
+        assertThat(this.bind(this.channel), is(SmppCommandStatus.ESME_ROK));
+
+        assertThat(this.sessionLimiter.systemIdSessions("system_id"), is(1));
+    }
+
+    @Test
+    public void testBindOverLimitRejected() {
+        final var other = new EmbeddedChannel(new SmppSessionHandler(this.authenticationClient, this.sessionLimiter));
+        this.bind(this.channel);
+
+        assertThat(this.bind(other), is(SmppCommandStatus.ESME_RBINDFAIL));
+        other.close();
+        assertThat(this.sessionLimiter.systemIdSessions("system_id"), is(1));
+        other.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testUnbindReleasesSlot() {
+        this.bind(this.channel);
+
+        this.channel.writeInbound(HeaderOnlyPdu.unbind(2));
+
+        assertThat(this.channel.readOutbound(), is(HeaderOnlyPdu.unbindResp(2)));
+        assertThat(this.sessionLimiter.systemIdSessions("system_id"), is(0));
+        assertThat(this.channel.isActive(), is(false));
+    }
+
+    @Test
+    public void testCloseReleasesSlot() {
+        this.bind(this.channel);
+
+        this.channel.close();
+
+        assertThat(this.sessionLimiter.systemIdSessions("system_id"), is(0));
+    }
+
+    @Test
+    public void testCredentialFailuresShareCommandStatus() {
+        this.failWith("unknown", SmppError.SMPP_3001);
+        this.failWith("wrong_password", SmppError.SMPP_3003);
+        this.failWith("wrong_ip", SmppError.SMPP_3002);
+        final var other = new EmbeddedChannel(new SmppSessionHandler(this.authenticationClient, this.sessionLimiter));
+        final var third = new EmbeddedChannel(new SmppSessionHandler(this.authenticationClient, this.sessionLimiter));
+
+        final var unknown = this.bind(this.channel, "unknown");
+        assertThat(unknown, is(SmppCommandStatus.ESME_RBINDFAIL));
+        assertThat(this.bind(other, "wrong_password"), is(unknown));
+        assertThat(this.bind(third, "wrong_ip"), is(unknown));
+        other.finishAndReleaseAll();
+        third.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDatastoreFailureIsSystemError() {
+        this.failWith("system_id", SmppError.SMPP_3004);
+
+        assertThat(this.bind(this.channel), is(SmppCommandStatus.ESME_RSYSERR));
+    }
+
+    private void failWith(final String systemId, final SmppError error) {
+        final Either<UnsuccessfulResponse, AuthenticationResponse> response =
+                Either.left(ImmutableUnsuccessfulResponse.builder().error(error).build());
+        when(this.authenticationClient.authenticateAsync(eq(systemId), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(response));
+    }
+
+    private int bind(final EmbeddedChannel channel) {
+        return this.bind(channel, "system_id");
+    }
+
+    private int bind(final EmbeddedChannel channel, final String systemId) {
+        channel.writeInbound(BindPdu.builder()
+                .commandId(SmppCommandId.BIND_TRANSCEIVER)
+                .sequenceNumber(1)
+                .systemId(systemId)
+                .password("password")
+                .build());
+        // the authentication completes on the event loop of the channel
+        channel.runPendingTasks();
+        final BindRespPdu response = channel.readOutbound();
+        return response.commandStatus();
+    }
+}
@@ -0,0 +1,120 @@
+package server.smpp.pdu;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SmppPduDecoderTest {
+    private final EmbeddedChannel channel = new EmbeddedChannel(new SmppPduDecoder());
+
+    @After
+    public void tearDown() {
+        this.channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDecodeBind() {
+        this.channel.writeInbound(bind(SmppCommandId.BIND_TRANSCEIVER, 7, "system_id", "password"));
+
+        final BindPdu bind = this.channel.readInbound();
+        assertThat(bind.commandId(), is(SmppCommandId.BIND_TRANSCEIVER));
+        assertThat(bind.sequenceNumber(), is(7));
+        assertThat(bind.systemId(), is("system_id"));
+        assertThat(bind.password(), is("password"));
+        assertThat(bind.systemType(), is("type"));
+        assertThat(bind.interfaceVersion(), is((byte) 0x34));
+        assertThat(bind.addrTon(), is((byte) 1));
+        assertThat(bind.addrNpi(), is((byte) 2));
+        assertThat(bind.addressRange(), is("range"));
+    }
+
+    @Test
+    public void testDecodeHeaderOnlyAndSkipBody() {
+        final var buffer = Unpooled.buffer()
+                .writeInt(Pdu.HEADER_LENGTH + 3)
+                .writeInt(0x00000004)
+                .writeInt(0)
+                .writeInt(1)
+                .writeBytes(new byte[] {1, 2, 3})
+                .writeBytes(header(Pdu.HEADER_LENGTH, SmppCommandId.UNBIND, 2));
+
+        this.channel.writeInbound(buffer);
+
+        final HeaderOnlyPdu submit = this.channel.readInbound();
+        final HeaderOnlyPdu unbind = this.channel.readInbound();
+        assertThat(submit.commandId(), is(0x00000004));
+        assertThat(submit.sequenceNumber(), is(1));
+        assertThat(unbind, is(HeaderOnlyPdu.unbind(2)));
+    }
+
+    @Test
+    public void testWaitForFragmentedPdu() {
+        final var pdu = bind(SmppCommandId.BIND_TRANSMITTER, 1, "system_id", "password");
+
+        this.channel.writeInbound(pdu.readRetainedSlice(2));
+        assertThat(this.channel.readInbound(), is(nullValue()));
+        this.channel.writeInbound(pdu.readRetainedSlice(Pdu.HEADER_LENGTH));
+        assertThat(this.channel.readInbound(), is(nullValue()));
+        this.channel.writeInbound(pdu.readRetainedSlice(pdu.readableBytes()));
+        pdu.release();
+
+        final BindPdu bind = this.channel.readInbound();
+        assertThat(bind.systemId(), is("system_id"));
+    }
+
+    @Test
+    public void testTruncatedBindBody() {
+        // the PDU ends after the system_id without its terminator
+        final var systemId = "system_id".getBytes(StandardCharsets.US_ASCII);
+        final var buffer = header(Pdu.HEADER_LENGTH + systemId.length, SmppCommandId.BIND_RECEIVER, 1)
+                .writeBytes(systemId);
+
+        this.channel.writeInbound(buffer);
+
+        final BindPdu bind = this.channel.readInbound();
+        assertThat(bind.systemId(), is("system_id"));
+        assertThat(bind.password(), is(""));
+        assertThat(bind.interfaceVersion(), is((byte) 0));
+        assertThat(bind.addressRange(), is(""));
+    }
+
+    @Test(expected = CorruptedFrameException.class)
+    public void testCommandLengthShorterThanHeader() {
+        this.channel.writeInbound(header(Pdu.HEADER_LENGTH - 1, SmppCommandId.UNBIND, 1));
+    }
+
+    @Test(expected = CorruptedFrameException.class)
+    public void testOversizedPdu() {
+        // rejected on the length field, before the body is buffered
+        this.channel.writeInbound(header(SmppPduDecoder.MAX_PDU_LENGTH + 1, SmppCommandId.BIND_TRANSCEIVER, 1));
+    }
+
+    private static ByteBuf header(final int commandLength, final int commandId, final int sequenceNumber) {
+        return Unpooled.buffer().writeInt(commandLength).writeInt(commandId).writeInt(0).writeInt(sequenceNumber);
+    }
+
+    private static ByteBuf bind(final int commandId, final int sequenceNumber, final String systemId,
+            final String password) {
+        final var body = Unpooled.buffer();
+        for (final String value : new String[] {systemId, password, "type"}) {
+            body.writeCharSequence(value, StandardCharsets.US_ASCII);
+            body.writeByte(0);
+        }
+        body.writeByte(0x34).writeByte(1).writeByte(2);
+        body.writeCharSequence("range", StandardCharsets.US_ASCII);
+        body.writeByte(0);
+
+        final var pdu = header(Pdu.HEADER_LENGTH + body.readableBytes(), commandId, sequenceNumber).writeBytes(body);
+        body.release();
+        return pdu;
+    }
+}
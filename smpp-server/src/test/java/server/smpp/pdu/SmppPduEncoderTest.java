@@ -0,0 +1,85 @@
+package server.smpp.pdu;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class SmppPduEncoderTest {
+    private final EmbeddedChannel channel = new EmbeddedChannel(new SmppPduEncoder());
+
+    @After
+    public void tearDown() {
+        this.channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testEncodeHeaderOnly() {
+        this.channel.writeOutbound(HeaderOnlyPdu.genericNack(0x00000003, 5));
+
+        final ByteBuf encoded = this.channel.readOutbound();
+        assertThat(encoded.readableBytes(), is(Pdu.HEADER_LENGTH));
+        assertThat(encoded.readInt(), is(Pdu.HEADER_LENGTH));
+        assertThat(encoded.readInt(), is(SmppCommandId.GENERIC_NACK));
+        assertThat(encoded.readInt(), is(0x00000003));
+        assertThat(encoded.readInt(), is(5));
+        encoded.release();
+    }
+
+    @Test
+    public void testEncodeBindResp() {
+        this.channel.writeOutbound(BindRespPdu.builder()
+                .commandId(SmppCommandId.BIND_TRANSCEIVER | SmppCommandId.RESPONSE_MASK)
+                .sequenceNumber(3)
+                .systemId("proxy")
+                .build());
+
+        final ByteBuf encoded = this.channel.readOutbound();
+        assertThat(encoded.getInt(0), is(Pdu.HEADER_LENGTH + "proxy".length() + 1));
+        assertThat(encoded.getInt(4), is(0x80000009));
+        assertThat(encoded.toString(Pdu.HEADER_LENGTH, "proxy".length(), StandardCharsets.US_ASCII), is("proxy"));
+        assertThat(encoded.getByte(encoded.writerIndex() - 1), is((byte) 0));
+        encoded.release();
+    }
+
+    @Test
+    public void testEncodeMissingStringAsTerminator() {
+        this.channel.writeOutbound(BindRespPdu.builder()
+                .commandId(SmppCommandId.BIND_RECEIVER | SmppCommandId.RESPONSE_MASK)
+                .commandStatus(0x0000000D)
+                .sequenceNumber(1)
+                .build());
+
+        final ByteBuf encoded = this.channel.readOutbound();
+        assertThat(encoded.getInt(0), is(Pdu.HEADER_LENGTH + 1));
+        assertThat(encoded.getByte(Pdu.HEADER_LENGTH), is((byte) 0));
+        encoded.release();
+    }
+
+    @Test
+    public void testBindRoundTrip() {
+        final var decoder = new EmbeddedChannel(new SmppPduDecoder());
+        final var bind = BindPdu.builder()
+                .commandId(SmppCommandId.BIND_TRANSMITTER)
+                .sequenceNumber(9)
+                .systemId("system_id")
+                .password("password")
+                .systemType("")
+                .interfaceVersion((byte) 0x34)
+                .addrTon((byte) 1)
+                .addrNpi((byte) 1)
+                .addressRange("")
+                .build();
+
+        this.channel.writeOutbound(bind);
+        decoder.writeInbound((ByteBuf) this.channel.readOutbound());
+
+        assertThat(decoder.readInbound(), is(bind));
+        decoder.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,120 @@
+package server.smpp.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class SessionLimiterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SessionLimiter limiter = new SessionLimiter(this.registry, 3, 2);
+
+    @Test
+    public void testSystemIdLimit() {
+        assertThat(this.limiter.tryAcquire("customer", "system_id"), is(true));
+        assertThat(this.limiter.tryAcquire("customer", "system_id"), is(true));
+
+        assertThat(this.limiter.tryAcquire("customer", "system_id"), is(false));
+        assertThat(this.limiter.systemIdSessions("system_id"), is(2));
+        assertThat(this.limiter.customerSessions("customer"), is(2));
+        assertThat(this.rejections("system_id"), is(1.0));
+    }
+
+    @Test
+    public void testCustomerLimitReturnsSystemIdSlot() {
+        assertThat(this.limiter.tryAcquire("customer", "first"), is(true));
+        assertThat(this.limiter.tryAcquire("customer", "second"), is(true));
+        assertThat(this.limiter.tryAcquire("customer", "third"), is(true));
+
+        assertThat(this.limiter.tryAcquire("customer", "fourth"), is(false));
+        assertThat(this.limiter.systemIdSessions("fourth"), is(0));
+        assertThat(this.limiter.customerSessions("customer"), is(3));
+        assertThat(this.rejections("customer_id"), is(1.0));
+    }
+
+    @Test
+    public void testReleaseFreesSlot() {
+        this.limiter.tryAcquire("customer", "system_id");
+        this.limiter.tryAcquire("customer", "system_id");
+
+        this.limiter.release("customer", "system_id");
+
+        assertThat(this.limiter.systemIdSessions("system_id"), is(1));
+        assertThat(this.limiter.tryAcquire("customer", "system_id"), is(true));
+    }
+
+    @Test
+    public void testReleasedKeysAreRemoved() {
+        this.limiter.tryAcquire("customer", "first");
+        this.limiter.tryAcquire("customer", "second");
+        assertThat(this.limiter.trackedKeys(), is(3));
+
+        this.limiter.release("customer", "first");
+        assertThat(this.limiter.trackedKeys(), is(2));
+        this.limiter.release("customer", "second");
+
+        assertThat(this.limiter.trackedKeys(), is(0));
+        assertThat(this.limiter.customerSessions("customer"), is(0));
+    }
+
+    @Test
+    public void testNoLimit() {
+        final var unlimited = new SessionLimiter(this.registry, 0, 0);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(unlimited.tryAcquire("customer", "system_id"), is(true));
+        }
+        assertThat(unlimited.trackedKeys(), is(0));
+    }
+
+    @Test
+    public void testConcurrentAcquireAndRelease() throws Exception {
+        final var threads = 8;
+        final var limiter = new SessionLimiter(this.registry, 0, 3);
+        final var bound = new AtomicInteger();
+        final var maxBound = new AtomicInteger();
+        final var start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> binds = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                binds.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        if (limiter.tryAcquire("customer", "system_id")) {
+                            maxBound.accumulateAndGet(bound.incrementAndGet(), Math::max);
+                            bound.decrementAndGet();
+                            limiter.release("customer", "system_id");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> bind : binds) {
+                bind.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxBound.get(), lessThanOrEqualTo(3));
+        assertThat(limiter.systemIdSessions("system_id"), is(0));
+        assertThat(limiter.trackedKeys(), is(0));
+    }
+
+    private double rejections(final String limit) {
+        return this.registry.counter("smpp.session.limit.rejections", "limit", limit).count();
+    }
+}
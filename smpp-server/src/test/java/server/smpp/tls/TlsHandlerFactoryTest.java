@@ -0,0 +1,127 @@
+package server.smpp.tls;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TlsHandlerFactoryTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void testJdkResumptionTls12() throws Exception {
+        this.assertResumption(SslProvider.JDK, "TLSv1.2");
+    }
+
+    @Test
+    public void testJdkResumptionTls13() throws Exception {
+        // resumed TLS 1.3 sessions get a new session ID
+        this.assertResumption(SslProvider.JDK, "TLSv1.3");
+    }
+
+    @Test
+    public void testOpenSslResumption() throws Exception {
+        Assume.assumeTrue(OpenSsl.isAvailable());
+
+        this.assertResumption(SslProvider.OPENSSL, "TLSv1.2");
+    }
+
+    @Test
+    public void testHandshakeTimedFromFirstBytes() throws Exception {
+        final var factory = this.factory(SslProvider.JDK, "TLSv1.2");
+        final var client = client("TLSv1.2");
+        final var server = new EmbeddedChannel();
+        factory.addHandlers(server);
+
+        // an idle connection before its ClientHello
+        Thread.sleep(1_000);
+        handshake(client, server);
+
+        assertThat(server.pipeline().get(HandshakeStartHandler.class), is(nullValue()));
+        assertThat(this.handshakes("full"), is(1L));
+        assertThat(this.registry.get("smpp.tls.handshake").tag("result", "full").timer()
+                .totalTime(TimeUnit.MILLISECONDS), lessThan(1_000.0));
+    }
+
+    private void assertResumption(final SslProvider provider, final String protocol) throws Exception {
+        final var factory = this.factory(provider, protocol);
+        final var client = client(protocol);
+
+        for (int i = 0; i < 3; i++) {
+            final var server = new EmbeddedChannel();
+            factory.addHandlers(server);
+            handshake(client, server);
+        }
+
+        assertThat(this.handshakes("full"), is(1L));
+        assertThat(this.handshakes("resumed"), is(2L));
+        assertThat(this.handshakes("failed"), is(0L));
+    }
+
+    private long handshakes(final String result) {
+        return this.registry.get("smpp.tls.handshake").tag("result", result).timer().count();
+    }
+
+    private TlsHandlerFactory factory(final SslProvider provider, final String protocol) throws Exception {
+        try (InputStream certificate = resource("certificate.pem"); InputStream key = resource("private-key.pem")) {
+            final var sslContext = SslContextBuilder.forServer(certificate, key)
+                    .sslProvider(provider)
+                    .protocols(protocol)
+                    .build();
+            return new TlsHandlerFactory(sslContext, 10_000, new TlsHandshakeMetrics(this.registry, provider.name()));
+        }
+    }
+
+    private static SslContext client(final String protocol) throws Exception {
+        return SslContextBuilder.forClient()
+                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                .sslProvider(SslProvider.JDK)
+                .protocols(protocol)
+                .build();
+    }
+
+    /**
+     * Exchange the handshake between a client, which caches its session by host and port, and the server channel
+     */
+    private static void handshake(final SslContext clientContext, final EmbeddedChannel server) {
+        final var clientHandler = clientContext.newHandler(ByteBufAllocator.DEFAULT, "localhost", 2775);
+        final var client = new EmbeddedChannel(clientHandler);
+        final var serverHandler = server.pipeline().get(SslHandler.class);
+        while (!clientHandler.handshakeFuture().isDone() || !serverHandler.handshakeFuture().isDone()) {
+            exchange(client, server);
+            exchange(server, client);
+        }
+        // TLS 1.3 session tickets follow the handshake
+        exchange(server, client);
+
+        assertThat(serverHandler.handshakeFuture().isSuccess(), is(true));
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+    }
+
+    private static void exchange(final EmbeddedChannel from, final EmbeddedChannel to) {
+        Object message;
+        while ((message = from.readOutbound()) != null) {
+            to.writeInbound(message);
+        }
+    }
+
+    private static InputStream resource(final String name) {
+        return TlsHandlerFactoryTest.class.getResourceAsStream("/tls/" + name);
+    }
+}